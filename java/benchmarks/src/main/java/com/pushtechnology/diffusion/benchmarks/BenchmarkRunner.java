@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the example benchmarks.
+ * <p>
+ * Accepts the standard JMH command line options. Unless the command line
+ * says otherwise, the GC profiler is enabled so that bytes allocated per
+ * operation are reported alongside the score, and results are written as
+ * JSON to {@code target/jmh-result.json} so that they can be compared
+ * between releases.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class BenchmarkRunner {
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Entry point for the benchmarks.
+     * @param args The JMH command line arguments
+     * @throws CommandLineOptionException If the arguments are not valid
+     * @throws RunnerException If a benchmark failed to run
+     */
+    public static void main(String[] args)
+        throws CommandLineOptionException, RunnerException {
+
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        final ChainedOptionsBuilder options =
+            new OptionsBuilder().parent(commandLine);
+
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
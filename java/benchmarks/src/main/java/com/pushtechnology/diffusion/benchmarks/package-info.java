@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+/**
+ * Entry point for the JMH benchmarks of the examples. The benchmarks
+ * themselves live in the packages of the code they measure.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+package com.pushtechnology.diffusion.benchmarks;
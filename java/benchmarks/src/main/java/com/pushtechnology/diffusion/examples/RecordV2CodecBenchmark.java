@@ -0,0 +1,766 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pushtechnology.diffusion.client.Diffusion;
+import com.pushtechnology.diffusion.datatype.recordv2.RecordV2;
+import com.pushtechnology.diffusion.datatype.recordv2.model.MutableRecordModel;
+import com.pushtechnology.diffusion.datatype.recordv2.model.RecordModel;
+import com.pushtechnology.diffusion.datatype.recordv2.schema.Schema;
+import com.pushtechnology.diffusion.examples.ClientCreatingRecordV2Schema.NameAndAddress;
+
+/**
+ * Benchmark for encoding and decoding RecordV2 values with a
+ * {@link RecordV2Codec}, compared with a {@link MutableRecordModel} and a
+ * {@link RecordModel}, for each schema of {@link ClientCreatingRecordV2Schema}.
+ * An extra shape with a single record whose optional fields are all absent
+ * checks that the codec decodes the resulting empty value.
+ * <P>
+ * The model benchmarks use the schemas created by the example. The codec
+ * benchmarks use schemas derived from annotated classes with the same
+ * records and fields, and the set up checks that both produce the same
+ * bytes.
+ * <P>
+ * {@code decodeWithCodec} decodes into the same object on every call, reusing
+ * its records and arrays, while {@code decodeWithModel} builds a new object
+ * each time. {@code decodeWithCodecNew} decodes into a new object, for a
+ * like-for-like comparison with the model.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RecordV2CodecBenchmark {
+    private static final int DECIMAL_SCALE = 3;
+
+    @Param({
+        "simple",
+        "multipleRecords",
+        "fixedRepeatingRecords",
+        "variableRepeatingRecords",
+        "fixedRepeatingFields",
+        "variableRepeatingFields",
+        "nameAndAddress",
+        "emptyOptionalFields",
+    })
+    private String shape;
+
+    private Shape<?> benchmark;
+
+    /**
+     * Create the codec, schema and values for the shape.
+     */
+    @Setup
+    public void setUp() {
+        final ClientCreatingRecordV2Schema schemas =
+            new ClientCreatingRecordV2Schema();
+
+        switch (shape) {
+        case "simple":
+            benchmark = new SimpleShape(schemas.createSimpleSchema());
+            break;
+        case "multipleRecords":
+            benchmark = new MultipleRecordsShape(
+                schemas.createMultipleRecordsSchema());
+            break;
+        case "fixedRepeatingRecords":
+            benchmark = new FixedRepeatingRecordsShape(
+                schemas.createFixedRepeatingRecordsSchema());
+            break;
+        case "variableRepeatingRecords":
+            benchmark = new VariableRepeatingRecordsShape(
+                schemas.createVariableRepeatingRecordsSchema());
+            break;
+        case "fixedRepeatingFields":
+            benchmark = new FixedRepeatingFieldsShape(
+                schemas.createFixedRepeatingFieldsSchema());
+            break;
+        case "variableRepeatingFields":
+            benchmark = new VariableRepeatingFieldsShape(
+                schemas.createVariableRepeatingFieldsSchema());
+            break;
+        case "nameAndAddress":
+            benchmark = new NameAndAddressShape(
+                schemas.createNameAndAddressSchema());
+            break;
+        case "emptyOptionalFields":
+            benchmark = new EmptyOptionalFieldsShape(
+                Diffusion.dataTypes().recordV2().schemaBuilder()
+                    .record("Record").string("optionalString", 0, 2)
+                    .build());
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+
+        benchmark.init();
+        benchmark.check();
+    }
+
+    /**
+     * @return the encoded value
+     */
+    @Benchmark
+    public RecordV2 encodeWithCodec() {
+        return benchmark.encodeWithCodec();
+    }
+
+    /**
+     * @return the encoded value
+     */
+    @Benchmark
+    public RecordV2 encodeWithModel() {
+        return benchmark.encodeWithModel();
+    }
+
+    /**
+     * @return the decoded object
+     */
+    @Benchmark
+    public Object decodeWithCodec() {
+        return benchmark.decodeWithCodec();
+    }
+
+    /**
+     * @return the decoded object
+     */
+    @Benchmark
+    public Object decodeWithCodecNew() {
+        return benchmark.decodeWithCodecNew();
+    }
+
+    /**
+     * @return the decoded object
+     */
+    @Benchmark
+    public Object decodeWithModel() {
+        return benchmark.decodeWithModel();
+    }
+
+    /**
+     * The codec, schema and values for a schema shape.
+     *
+     * @param <T> the type of the objects
+     */
+    private abstract static class Shape<T> {
+        private final RecordV2Codec<T> codec;
+        private final Schema schema;
+        private T sample;
+        private T target;
+        private RecordV2 value;
+
+        Shape(Class<T> type, Schema schema) {
+            codec = RecordV2Codec.forClass(type);
+            this.schema = schema;
+        }
+
+        /**
+         * Create the values. Called once the subclass has been constructed,
+         * as it creates them.
+         */
+        void init() {
+            sample = sample();
+            target = codec.decode(encode(schema, sample));
+            value = encode(schema, sample);
+        }
+
+        /**
+         * @return a populated object
+         */
+        abstract T sample();
+
+        /**
+         * Encode an object with a mutable model of the schema.
+         */
+        abstract RecordV2 encode(Schema modelSchema, T object);
+
+        /**
+         * Decode a value with a model of the schema.
+         */
+        abstract T decode(Schema modelSchema, RecordV2 recordValue);
+
+        /**
+         * Check that the codec and the model agree, so that the benchmarks
+         * compare the same work.
+         */
+        void check() {
+            if (!codec.getSchema().asJSONString()
+                .equals(schema.asJSONString())) {
+                throw new IllegalStateException(
+                    "Codec and model schemas differ");
+            }
+
+            if (!codec.encode(sample).equals(value)) {
+                throw new IllegalStateException(
+                    "Codec and model encodings differ");
+            }
+
+            // The objects have no equals, so compare their encodings
+            if (!codec.encode(decodeWithCodec())
+                .equals(codec.encode(decodeWithModel()))) {
+                throw new IllegalStateException(
+                    "Codec and model decodings differ");
+            }
+        }
+
+        RecordV2 encodeWithCodec() {
+            return codec.encode(sample);
+        }
+
+        RecordV2 encodeWithModel() {
+            return encode(schema, sample);
+        }
+
+        T decodeWithCodec() {
+            return codec.decode(value, target);
+        }
+
+        T decodeWithCodecNew() {
+            return codec.decode(value);
+        }
+
+        T decodeWithModel() {
+            return decode(schema, value);
+        }
+    }
+
+    private static String key(
+        String record,
+        int recordIndex,
+        String field,
+        int fieldIndex) {
+
+        return
+            record + "(" + recordIndex + ")." + field + "(" + fieldIndex + ")";
+    }
+
+    private static String[] strings(String prefix, int count) {
+        final String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            strings[i] = prefix + i;
+        }
+        return strings;
+    }
+
+    @RecordV2Codec.Record("Record")
+    static final class Simple {
+        @RecordV2Codec.Field(0)
+        private String string;
+        @RecordV2Codec.Field(1)
+        private int integer;
+        @RecordV2Codec.Field(value = 2, scale = DECIMAL_SCALE)
+        private long decimal;
+    }
+
+    private static final class SimpleShape extends Shape<Simple> {
+        SimpleShape(Schema schema) {
+            super(Simple.class, schema);
+        }
+
+        @Override
+        Simple sample() {
+            final Simple simple = new Simple();
+            simple.string = "string";
+            simple.integer = 12345;
+            simple.decimal = 67890123L;
+            return simple;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, Simple object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            model.set("Record(0).string(0)", object.string);
+            model.set("Record(0).integer(0)", Integer.toString(object.integer));
+            model.set(
+                "Record(0).decimal(0)",
+                FixedPoint.format(object.decimal, DECIMAL_SCALE));
+            return model.asValue();
+        }
+
+        @Override
+        Simple decode(Schema modelSchema, RecordV2 recordValue) {
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final Simple simple = new Simple();
+            simple.string = model.get("Record(0).string(0)");
+            simple.integer =
+                Integer.parseInt(model.get("Record(0).integer(0)"));
+            simple.decimal = FixedPoint.parse(
+                model.get("Record(0).decimal(0)"),
+                DECIMAL_SCALE);
+            return simple;
+        }
+    }
+
+    @RecordV2Codec.Record
+    static final class StringRecord {
+        @RecordV2Codec.Field(0)
+        private String string;
+    }
+
+    @RecordV2Codec.Record
+    static final class IntegerRecord {
+        @RecordV2Codec.Field(0)
+        private int integer;
+    }
+
+    @RecordV2Codec.Record
+    static final class DecimalRecord {
+        @RecordV2Codec.Field(value = 0, scale = DECIMAL_SCALE)
+        private long decimal;
+    }
+
+    static final class MultipleRecords {
+        @RecordV2Codec.Field(0)
+        private StringRecord stringRecord;
+        @RecordV2Codec.Field(1)
+        private IntegerRecord integerRecord;
+        @RecordV2Codec.Field(2)
+        private DecimalRecord decimalRecord;
+    }
+
+    private static final class MultipleRecordsShape
+        extends Shape<MultipleRecords> {
+
+        MultipleRecordsShape(Schema schema) {
+            super(MultipleRecords.class, schema);
+        }
+
+        @Override
+        MultipleRecords sample() {
+            final MultipleRecords records = new MultipleRecords();
+            records.stringRecord = new StringRecord();
+            records.stringRecord.string = "string";
+            records.integerRecord = new IntegerRecord();
+            records.integerRecord.integer = 12345;
+            records.decimalRecord = new DecimalRecord();
+            records.decimalRecord.decimal = 67890123L;
+            return records;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, MultipleRecords object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            model.set("StringRecord(0).string(0)", object.stringRecord.string);
+            model.set(
+                "IntegerRecord(0).integer(0)",
+                Integer.toString(object.integerRecord.integer));
+            model.set(
+                "DecimalRecord(0).decimal(0)",
+                FixedPoint.format(object.decimalRecord.decimal, DECIMAL_SCALE));
+            return model.asValue();
+        }
+
+        @Override
+        MultipleRecords decode(Schema modelSchema, RecordV2 recordValue) {
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final MultipleRecords records = new MultipleRecords();
+            records.stringRecord = new StringRecord();
+            records.stringRecord.string =
+                model.get("StringRecord(0).string(0)");
+            records.integerRecord = new IntegerRecord();
+            records.integerRecord.integer =
+                Integer.parseInt(model.get("IntegerRecord(0).integer(0)"));
+            records.decimalRecord = new DecimalRecord();
+            records.decimalRecord.decimal = FixedPoint.parse(
+                model.get("DecimalRecord(0).decimal(0)"),
+                DECIMAL_SCALE);
+            return records;
+        }
+    }
+
+    @RecordV2Codec.Record("RepeatingRecord")
+    static final class RepeatingRecord {
+        @RecordV2Codec.Field(0)
+        private String string;
+    }
+
+    static final class FixedRepeatingRecords {
+        @RecordV2Codec.Field(value = 0, min = 10)
+        private RepeatingRecord[] records;
+    }
+
+    private static final class FixedRepeatingRecordsShape
+        extends Shape<FixedRepeatingRecords> {
+
+        FixedRepeatingRecordsShape(Schema schema) {
+            super(FixedRepeatingRecords.class, schema);
+        }
+
+        @Override
+        FixedRepeatingRecords sample() {
+            final FixedRepeatingRecords records = new FixedRepeatingRecords();
+            records.records = new RepeatingRecord[10];
+            for (int i = 0; i < records.records.length; i++) {
+                records.records[i] = new RepeatingRecord();
+                records.records[i].string = "string" + i;
+            }
+            return records;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, FixedRepeatingRecords object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            for (int i = 0; i < object.records.length; i++) {
+                model.set(
+                    key("RepeatingRecord", i, "string", 0),
+                    object.records[i].string);
+            }
+            return model.asValue();
+        }
+
+        @Override
+        FixedRepeatingRecords decode(Schema modelSchema, RecordV2 recordValue) {
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final FixedRepeatingRecords records = new FixedRepeatingRecords();
+            records.records = new RepeatingRecord[10];
+            for (int i = 0; i < records.records.length; i++) {
+                records.records[i] = new RepeatingRecord();
+                records.records[i].string =
+                    model.get(key("RepeatingRecord", i, "string", 0));
+            }
+            return records;
+        }
+    }
+
+    @RecordV2Codec.Record("FixedRecord")
+    static final class FixedRecord {
+        @RecordV2Codec.Field(0)
+        private String a;
+    }
+
+    @RecordV2Codec.Record("RepeatingRecord")
+    static final class OptionalRecord {
+        @RecordV2Codec.Field(0)
+        private String b;
+    }
+
+    static final class VariableRepeatingRecords {
+        @RecordV2Codec.Field(value = 0, min = 5)
+        private FixedRecord[] fixed;
+        @RecordV2Codec.Field(value = 1, min = 0, max = -1)
+        private OptionalRecord[] repeating;
+    }
+
+    private static final class VariableRepeatingRecordsShape
+        extends Shape<VariableRepeatingRecords> {
+
+        VariableRepeatingRecordsShape(Schema schema) {
+            super(VariableRepeatingRecords.class, schema);
+        }
+
+        @Override
+        VariableRepeatingRecords sample() {
+            final VariableRepeatingRecords records =
+                new VariableRepeatingRecords();
+            records.fixed = new FixedRecord[5];
+            for (int i = 0; i < records.fixed.length; i++) {
+                records.fixed[i] = new FixedRecord();
+                records.fixed[i].a = "a" + i;
+            }
+            records.repeating = new OptionalRecord[5];
+            for (int i = 0; i < records.repeating.length; i++) {
+                records.repeating[i] = new OptionalRecord();
+                records.repeating[i].b = "b" + i;
+            }
+            return records;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, VariableRepeatingRecords object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            for (int i = 0; i < object.fixed.length; i++) {
+                model.set(key("FixedRecord", i, "a", 0), object.fixed[i].a);
+            }
+            for (int i = 0; i < object.repeating.length; i++) {
+                model.addRecord();
+                model.set(
+                    key("RepeatingRecord", i, "b", 0),
+                    object.repeating[i].b);
+            }
+            return model.asValue();
+        }
+
+        @Override
+        VariableRepeatingRecords decode(
+            Schema modelSchema,
+            RecordV2 recordValue) {
+
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final VariableRepeatingRecords records =
+                new VariableRepeatingRecords();
+            records.fixed = new FixedRecord[5];
+            for (int i = 0; i < records.fixed.length; i++) {
+                records.fixed[i] = new FixedRecord();
+                records.fixed[i].a = model.get(key("FixedRecord", i, "a", 0));
+            }
+            records.repeating =
+                new OptionalRecord[model.recordCount("RepeatingRecord")];
+            for (int i = 0; i < records.repeating.length; i++) {
+                records.repeating[i] = new OptionalRecord();
+                records.repeating[i].b =
+                    model.get(key("RepeatingRecord", i, "b", 0));
+            }
+            return records;
+        }
+    }
+
+    @RecordV2Codec.Record("Record")
+    static final class FixedRepeatingFields {
+        @RecordV2Codec.Field(value = 0, min = 10)
+        private String[] repeatingString;
+    }
+
+    private static final class FixedRepeatingFieldsShape
+        extends Shape<FixedRepeatingFields> {
+
+        FixedRepeatingFieldsShape(Schema schema) {
+            super(FixedRepeatingFields.class, schema);
+        }
+
+        @Override
+        FixedRepeatingFields sample() {
+            final FixedRepeatingFields fields = new FixedRepeatingFields();
+            fields.repeatingString = strings("string", 10);
+            return fields;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, FixedRepeatingFields object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            for (int i = 0; i < object.repeatingString.length; i++) {
+                model.set(
+                    key("Record", 0, "repeatingString", i),
+                    object.repeatingString[i]);
+            }
+            return model.asValue();
+        }
+
+        @Override
+        FixedRepeatingFields decode(Schema modelSchema, RecordV2 recordValue) {
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final FixedRepeatingFields fields = new FixedRepeatingFields();
+            fields.repeatingString = new String[10];
+            for (int i = 0; i < fields.repeatingString.length; i++) {
+                fields.repeatingString[i] =
+                    model.get(key("Record", 0, "repeatingString", i));
+            }
+            return fields;
+        }
+    }
+
+    @RecordV2Codec.Record("A")
+    static final class RecordA {
+        @RecordV2Codec.Field(value = 0, min = 2, max = 5)
+        private String[] repeatingField;
+    }
+
+    @RecordV2Codec.Record("B")
+    static final class RecordB {
+        @RecordV2Codec.Field(value = 0, min = 1, max = -1)
+        private String[] repeatingFieldUnlimited;
+    }
+
+    static final class VariableRepeatingFields {
+        @RecordV2Codec.Field(0)
+        private RecordA a;
+        @RecordV2Codec.Field(1)
+        private RecordB b;
+    }
+
+    private static final class VariableRepeatingFieldsShape
+        extends Shape<VariableRepeatingFields> {
+
+        VariableRepeatingFieldsShape(Schema schema) {
+            super(VariableRepeatingFields.class, schema);
+        }
+
+        @Override
+        VariableRepeatingFields sample() {
+            final VariableRepeatingFields fields =
+                new VariableRepeatingFields();
+            fields.a = new RecordA();
+            fields.a.repeatingField = strings("a", 4);
+            fields.b = new RecordB();
+            fields.b.repeatingFieldUnlimited = strings("b", 8);
+            return fields;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, VariableRepeatingFields object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            final String[] a = object.a.repeatingField;
+            for (int i = 0; i < a.length; i++) {
+                if (i >= 2) {
+                    model.add("A", 0, a[i]);
+                }
+                else {
+                    model.set(key("A", 0, "repeatingField", i), a[i]);
+                }
+            }
+            final String[] b = object.b.repeatingFieldUnlimited;
+            for (int i = 0; i < b.length; i++) {
+                if (i >= 1) {
+                    model.add("B", 0, b[i]);
+                }
+                else {
+                    model.set(key("B", 0, "repeatingFieldUnlimited", i), b[i]);
+                }
+            }
+            return model.asValue();
+        }
+
+        @Override
+        VariableRepeatingFields decode(
+            Schema modelSchema,
+            RecordV2 recordValue) {
+
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final VariableRepeatingFields fields =
+                new VariableRepeatingFields();
+
+            fields.a = new RecordA();
+            fields.a.repeatingField =
+                new String[model.fieldCount("A", 0, "repeatingField")];
+            for (int i = 0; i < fields.a.repeatingField.length; i++) {
+                fields.a.repeatingField[i] =
+                    model.get(key("A", 0, "repeatingField", i));
+            }
+
+            fields.b = new RecordB();
+            fields.b.repeatingFieldUnlimited =
+                new String[model.fieldCount("B", 0, "repeatingFieldUnlimited")];
+            for (int i = 0; i < fields.b.repeatingFieldUnlimited.length; i++) {
+                fields.b.repeatingFieldUnlimited[i] =
+                    model.get(key("B", 0, "repeatingFieldUnlimited", i));
+            }
+            return fields;
+        }
+    }
+
+    private static final class NameAndAddressShape
+        extends Shape<NameAndAddress> {
+
+        NameAndAddressShape(Schema schema) {
+            super(NameAndAddress.class, schema);
+        }
+
+        @Override
+        NameAndAddress sample() {
+            final NameAndAddress person = new NameAndAddress();
+            person.setFirstName("Ada");
+            person.setSurname("Lovelace");
+            person.setHouseNumber(12);
+            person.setStreet("St James's Square");
+            person.setTown("London");
+            person.setState("Middlesex");
+            person.setPostCode("SW1Y 4JH");
+            return person;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, NameAndAddress object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            model.set("nameAndAddress(0).firstName(0)", object.getFirstName());
+            model.set("nameAndAddress(0).surname(0)", object.getSurname());
+            model.set(
+                "nameAndAddress(0).houseNumber(0)",
+                Integer.toString(object.getHouseNumber()));
+            model.set("nameAndAddress(0).street(0)", object.getStreet());
+            model.set("nameAndAddress(0).town(0)", object.getTown());
+            model.set("nameAndAddress(0).state(0)", object.getState());
+            model.set("nameAndAddress(0).postCode(0)", object.getPostCode());
+            return model.asValue();
+        }
+
+        @Override
+        NameAndAddress decode(Schema modelSchema, RecordV2 recordValue) {
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final NameAndAddress person = new NameAndAddress();
+            person.setFirstName(model.get("nameAndAddress(0).firstName(0)"));
+            person.setSurname(model.get("nameAndAddress(0).surname(0)"));
+            person.setHouseNumber(Integer.parseInt(
+                model.get("nameAndAddress(0).houseNumber(0)")));
+            person.setStreet(model.get("nameAndAddress(0).street(0)"));
+            person.setTown(model.get("nameAndAddress(0).town(0)"));
+            person.setState(model.get("nameAndAddress(0).state(0)"));
+            person.setPostCode(model.get("nameAndAddress(0).postCode(0)"));
+            return person;
+        }
+    }
+
+    @RecordV2Codec.Record("Record")
+    static final class EmptyOptionalFields {
+        @RecordV2Codec.Field(value = 0, min = 0, max = 2)
+        private String[] optionalString;
+    }
+
+    private static final class EmptyOptionalFieldsShape
+        extends Shape<EmptyOptionalFields> {
+
+        EmptyOptionalFieldsShape(Schema schema) {
+            super(EmptyOptionalFields.class, schema);
+        }
+
+        @Override
+        EmptyOptionalFields sample() {
+            final EmptyOptionalFields fields = new EmptyOptionalFields();
+            fields.optionalString = new String[0];
+            return fields;
+        }
+
+        @Override
+        RecordV2 encode(Schema modelSchema, EmptyOptionalFields object) {
+            final MutableRecordModel model = modelSchema.createMutableModel();
+            final String[] strings = object.optionalString;
+            for (int i = 0; i < strings.length; i++) {
+                model.add("Record", 0, strings[i]);
+            }
+            return model.asValue();
+        }
+
+        @Override
+        EmptyOptionalFields decode(Schema modelSchema, RecordV2 recordValue) {
+            final RecordModel model = recordValue.asModel(modelSchema);
+            final EmptyOptionalFields fields = new EmptyOptionalFields();
+            fields.optionalString =
+                new String[model.fieldCount("Record", 0, "optionalString")];
+            for (int i = 0; i < fields.optionalString.length; i++) {
+                fields.optionalString[i] =
+                    model.get(key("Record", 0, "optionalString", i));
+            }
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import com.pushtechnology.diffusion.datatype.json.JSON;
+
+/**
+ * Benchmark for the CBOR decoding performed by the {@link ConsumingJson}
+ * value stream, compared with decoding into a map with a per-value parser.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ConsumingJsonBenchmark {
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+    private static final ObjectMapper OBJECT_MAPPER =
+        new ObjectMapper(CBOR_FACTORY);
+    private static final TypeReference<Map<String, BigInteger>> INT_MAP_TYPE =
+        new TypeReference<Map<String, BigInteger>>() { };
+
+    private JSON json;
+
+    /**
+     * Create the value to decode.
+     * @throws JsonProcessingException If the value could not be serialized
+     */
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        json = RandomData.toJSON(RandomData.next());
+    }
+
+    /**
+     * @return The decoded value
+     * @throws IOException If the value could not be decoded
+     */
+    @Benchmark
+    public RandomData fromJSON() throws IOException {
+        return RandomData.fromJSON(json);
+    }
+
+    /**
+     * @return The decoded map
+     * @throws IOException If the value could not be decoded
+     */
+    @Benchmark
+    public Map<String, BigInteger> toMap() throws IOException {
+        final CBORParser parser =
+            CBOR_FACTORY.createParser(json.asInputStream());
+        final Map<String, BigInteger> map = OBJECT_MAPPER
+            .readValue(parser, INT_MAP_TYPE);
+        parser.close();
+        return map;
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.pushtechnology.diffusion.datatype.binary.Binary;
+import com.pushtechnology.diffusion.datatype.json.JSON;
+
+/**
+ * Benchmarks for the {@link RandomData} serialization used by
+ * {@link ProducingBinary}, {@link ConsumingBinary} and {@link ProducingJson}.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RandomDataBenchmark {
+    private RandomData randomData;
+    private Binary binary;
+
+    /**
+     * Create the values to serialize and deserialize.
+     */
+    @Setup
+    public void setUp() {
+        randomData = RandomData.next();
+        binary = RandomData.toBinary(randomData);
+    }
+
+    /**
+     * @return The {@link RandomData} serialized as {@link Binary}
+     */
+    @Benchmark
+    public Binary toBinary() {
+        return RandomData.toBinary(randomData);
+    }
+
+    /**
+     * @return The {@link RandomData} deserialized from {@link Binary}
+     */
+    @Benchmark
+    public RandomData fromBinary() {
+        return RandomData.fromBinary(binary);
+    }
+
+    /**
+     * @return The {@link RandomData} serialized as {@link JSON}
+     * @throws JsonProcessingException If the value could not be serialized
+     */
+    @Benchmark
+    public JSON toJSON() throws JsonProcessingException {
+        return RandomData.toJSON(randomData);
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pushtechnology.diffusion.datatype.binary.Binary;
+
+/**
+ * Benchmarks for {@link RandomDataCodec} and {@link RandomDataView}.
+ * <p>
+ * Run with the GC profiler; {@code gc.alloc.rate.norm} should be zero for
+ * {@link #encode} and {@link #read}, and only the size of the published
+ * value for {@link #toBinary}. Compare with {@link RandomDataBenchmark}.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RandomDataCodecBenchmark {
+    private final byte[] buffer = new byte[RandomDataCodec.SIZE];
+    private final RandomDataView view = new RandomDataView();
+
+    private RandomData randomData;
+    private Binary binary;
+
+    /**
+     * Create the values to encode and decode.
+     */
+    @Setup
+    public void setUp() {
+        randomData = RandomData.next();
+        binary = RandomDataCodec.toBinary(randomData);
+    }
+
+    /**
+     * @return The number of bytes encoded into the reused buffer
+     */
+    @Benchmark
+    public int encode() {
+        return RandomDataCodec.encode(randomData, buffer, 0);
+    }
+
+    /**
+     * @return The {@link RandomData} serialized as {@link Binary}
+     */
+    @Benchmark
+    public Binary toBinary() {
+        return RandomDataCodec.toBinary(randomData);
+    }
+
+    /**
+     * Decode into the reused view.
+     * @param blackhole Consumes the decoded fields
+     */
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        final RandomDataView result = view.read(binary);
+        blackhole.consume(result.getId());
+        blackhole.consume(result.getTimestamp());
+        blackhole.consume(result.getRandomInt());
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.System.currentTimeMillis;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link RandomData#next()} compared with a generator that
+ * takes a global lock around a shared counter and {@link Random}, at 1, 4,
+ * 16 and 64 producer threads.
+ * <p>
+ * The thread counts are nested benchmark classes because JMH does not allow
+ * the thread count to be a parameter.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public abstract class RandomDataNextBenchmark {
+    private static final AtomicInteger LOCKED_ID_GENERATOR =
+        new AtomicInteger(0);
+    private static final Random LOCKED_RANDOM = new Random();
+
+    /**
+     * @return The next value from the lock-free generator
+     */
+    @Benchmark
+    public RandomData striped() {
+        return RandomData.next();
+    }
+
+    /**
+     * @return The next value from the lock-based generator
+     */
+    @Benchmark
+    public RandomData locked() {
+        synchronized (RandomDataNextBenchmark.class) {
+            return new RandomData(
+                LOCKED_ID_GENERATOR.getAndIncrement(),
+                currentTimeMillis(),
+                LOCKED_RANDOM.nextInt(MAX_VALUE));
+        }
+    }
+
+    /**
+     * One producer thread.
+     */
+    @Threads(1)
+    public static class Threads1 extends RandomDataNextBenchmark {
+    }
+
+    /**
+     * Four producer threads.
+     */
+    @Threads(4)
+    public static class Threads4 extends RandomDataNextBenchmark {
+    }
+
+    /**
+     * Sixteen producer threads.
+     */
+    @Threads(16)
+    public static class Threads16 extends RandomDataNextBenchmark {
+    }
+
+    /**
+     * Sixty-four producer threads.
+     */
+    @Threads(64)
+    public static class Threads64 extends RandomDataNextBenchmark {
+    }
+}
@@ -17,16 +17,13 @@ package com.pushtechnology.diffusion.examples;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.util.Map;
+import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
-import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.pushtechnology.diffusion.client.Diffusion;
 import com.pushtechnology.diffusion.client.features.Topics;
 import com.pushtechnology.diffusion.client.features.Topics.UnsubscribeReason;
@@ -41,6 +38,13 @@ import com.pushtechnology.diffusion.datatype.json.JSON;
  * which contains a map of conversion rates to each target currency. For
  * example, FX/GBP could contain {"USD":"123.45","HKD":"456.3"}.
  * <P>
+ * Rates are parsed directly into {@link FixedPoint} values scaled by
+ * {@link FixedPoint#RATE_SCALE}, without intermediate strings or
+ * {@code BigDecimal}s. Each value is parsed into arrays that are reused for
+ * every update, and the arrays are passed to the listener once the whole
+ * value has been parsed, so no collection or boxed rate is allocated per
+ * update.
+ * <P>
  * All updates will be notified to a listener.
  *
  * @author DiffusionData Limited
@@ -102,12 +106,26 @@ public final class ClientConsumingJSONTopics {
     public interface RatesListener {
 
         /**
-         * Notification of a new rate or rate update.
+         * Notification of new rates or a rates update. Called once for each
+         * update of a base currency, with every rate of the update. A target
+         * currency that is not passed no longer has a rate.
+         * <P>
+         * The arrays are reused for later updates, so they must not be
+         * retained after the call returns.
          *
          * @param currency the base currency
-         * @param rates map of rates
+         * @param targetCurrencies the target currencies, in the first
+         *        {@code count} elements
+         * @param rates the rate for each target currency, scaled by
+         *        {@link FixedPoint#RATE_SCALE}, in the first {@code count}
+         *        elements
+         * @param count the number of rates
          */
-        void onNewRates(String currency, Map<String, BigDecimal> rates);
+        void onNewRates(
+            String currency,
+            String[] targetCurrencies,
+            long[] rates,
+            int count);
 
         /**
          * Notification of a rate being removed.
@@ -122,11 +140,10 @@ public final class ClientConsumingJSONTopics {
      */
     private final class RatesStream extends Topics.ValueStream.Default<JSON> {
 
-        private final CBORFactory factory = new CBORFactory();
-        private final ObjectMapper mapper = new ObjectMapper();
-        private final TypeReference<Map<String, BigDecimal>> typeReference =
-            new TypeReference<Map<String, BigDecimal>>() {
-            };
+        // Reused for each value, as values are delivered one at a time
+        private String[] targetCurrencies = new String[16];
+        private long[] rates = new long[16];
+        private int count;
 
         @Override
         public void onValue(
@@ -136,19 +153,72 @@ public final class ClientConsumingJSONTopics {
             JSON newValue) {
             try {
                 // Use the third-party Jackson library to parse the newValue's
-                // binary representation and convert to a map
-                final CBORParser parser =
-                    factory.createParser(newValue.asInputStream());
-                final Map<String, BigDecimal> map =
-                    mapper.readValue(parser, typeReference);
-                final String currency = pathToCurrency(topicPath);
-                listener.onNewRates(currency, map);
+                // binary representation into the rates arrays
+                parseRates(newValue);
+                listener.onNewRates(
+                    pathToCurrency(topicPath),
+                    targetCurrencies,
+                    rates,
+                    count);
             }
             catch (IOException ex) {
                 ex.printStackTrace();
             }
         }
 
+        /**
+         * Stream the rates from the value into the rates arrays, parsing each
+         * textual rate from the parser's character buffer.
+         */
+        private void parseRates(JSON value) throws IOException {
+            count = 0;
+
+            try (JsonParser parser = JSONCodec.parser(value)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Rates are not a JSON object");
+                }
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String targetCurrency = parser.getCurrentName();
+                    final JsonToken token = parser.nextToken();
+
+                    final long rate;
+                    if (token == JsonToken.VALUE_STRING) {
+                        rate = FixedPoint.parse(
+                            parser.getTextCharacters(),
+                            parser.getTextOffset(),
+                            parser.getTextLength(),
+                            FixedPoint.RATE_SCALE);
+                    }
+                    else if (token.isNumeric()) {
+                        rate = FixedPoint.valueOf(
+                            parser.getDecimalValue(),
+                            FixedPoint.RATE_SCALE);
+                    }
+                    else {
+                        throw new IOException(
+                            "Rate for " + targetCurrency + " is not a number");
+                    }
+
+                    add(targetCurrency, rate);
+                }
+            }
+            catch (NumberFormatException | ArithmeticException e) {
+                throw new IOException("Invalid rate", e);
+            }
+        }
+
+        private void add(String targetCurrency, long rate) {
+            if (count == rates.length) {
+                targetCurrencies =
+                    Arrays.copyOf(targetCurrencies, count * 2);
+                rates = Arrays.copyOf(rates, count * 2);
+            }
+            targetCurrencies[count] = targetCurrency;
+            rates[count] = rate;
+            count++;
+        }
+
         @Override
         public void onUnsubscription(
             String topicPath,
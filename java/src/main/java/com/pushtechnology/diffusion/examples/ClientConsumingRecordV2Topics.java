@@ -17,9 +17,7 @@ package com.pushtechnology.diffusion.examples;
 import static java.util.Objects.requireNonNull;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,11 +29,8 @@ import com.pushtechnology.diffusion.client.features.Topics.ValueStream;
 import com.pushtechnology.diffusion.client.session.Session;
 import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
 import com.pushtechnology.diffusion.datatype.recordv2.RecordV2;
-import com.pushtechnology.diffusion.datatype.recordv2.RecordV2Delta;
-import com.pushtechnology.diffusion.datatype.recordv2.RecordV2Delta.Change;
-import com.pushtechnology.diffusion.datatype.recordv2.model.RecordModel;
-import com.pushtechnology.diffusion.datatype.recordv2.schema.Schema;
 import com.pushtechnology.diffusion.datatype.recordv2.schema.SchemaParseException;
+import com.pushtechnology.diffusion.examples.CompiledSchema.DecimalAccessor;
 
 /**
  * This demonstrates a client consuming RecordV2 topics.
@@ -45,7 +40,18 @@ import com.pushtechnology.diffusion.datatype.recordv2.schema.SchemaParseExceptio
  * processing.
  * <P>
  * It can be run using a schema or not using a schema and demonstrates how the
- * processing could be done in both cases.
+ * processing could be done in both cases. When a schema is provided, it is
+ * compiled to the positions of the bid and ask fields, so that each update
+ * is read by index rather than by field name. See {@link CompiledSchema}.
+ * If the schema has no Bid or Ask decimal field with the expected scale,
+ * updates are not applied.
+ * <P>
+ * Rates are held as {@link FixedPoint} values scaled by
+ * {@link FixedPoint#RATE_SCALE}, parsed directly from the bytes of each
+ * update. An empty bid or ask field is a rate that is not available, which
+ * is reported by {@link Rates#hasBid()} and {@link Rates#hasAsk()} and by
+ * {@link RatesListener#onRateCleared}. An update with a field that is neither
+ * empty nor a decimal is logged and ignored.
  * <P>
  * This makes use of the 'Topics' feature only.
  * <P>
@@ -58,8 +64,9 @@ import com.pushtechnology.diffusion.datatype.recordv2.schema.SchemaParseExceptio
  * currency which contains the bid and ask rates. So a topic FX/GBP/USD would
  * contain the rates for GBP to USD.
  * <P>
- * This example maintains a local map of the rates and also notifies a listener
- * of any rates changes.
+ * This example maintains a local table of the rates and also notifies a
+ * listener of any rates changes. The table can be read by any thread while
+ * it is updated. See {@link RatesTable}.
  *
  * @author DiffusionData Limited
  * @since 6.0
@@ -73,12 +80,27 @@ public final class ClientConsumingRecordV2Topics {
     private static final String ROOT_TOPIC = "FX";
 
     /**
-     * The map of currency codes to currency objects which each maintain rates
-     * for each target currency.
+     * The maximum number of currency pairs.
+     */
+    private static final int MAX_CURRENCY_PAIRS = 4096;
+
+    /**
+     * The rates of each currency pair. See {@link RatesTable}.
      */
-    private final Map<String, Currency> currencies = new ConcurrentHashMap<>();
+    private final RatesTable rates = new RatesTable(MAX_CURRENCY_PAIRS);
 
-    private Schema schema;
+    /**
+     * Receives the previous rates of a pair. Only used by the value stream,
+     * which receives one value at a time.
+     */
+    private final long[] previousRates = new long[3];
+
+    /**
+     * The positions of the rates fields, compiled from the schema. Without a
+     * schema the bid and ask are the first two fields. Null if the schema
+     * could not be compiled, in which case updates are not applied.
+     */
+    private volatile RatesFields ratesFields = new RatesFields(0, 1);
 
     private final RatesListener listener;
 
@@ -126,127 +148,109 @@ public final class ClientConsumingRecordV2Topics {
      * @return the rates or null if there is no such base or target currency
      */
     public Rates getRates(String currency, String targetCurrency) {
-        final Currency currencyObject = currencies.get(currency);
-        if (currencyObject != null) {
-            return currencyObject.getRates(targetCurrency);
+        final int pairId = rates.findPairId(currency, targetCurrency);
+        if (pairId < 0) {
+            return null;
+        }
+
+        final long[] values = new long[3];
+        if (rates.get(pairId, values)) {
+            return new Rates(values[0], values[1], (int) values[2]);
         }
         return null;
     }
 
     /**
-     * This is used to apply topic stream updates to the local map and notify
-     * listener of changes.
+     * This is used to apply topic stream updates to the local table and
+     * notify listener of changes.
      */
-    private void applyUpdate(
-        String currency,
-        String targetCurrency,
-        RecordV2 oldValue,
-        RecordV2 newValue) {
-
-        Currency currencyObject = currencies.get(currency);
-        if (currencyObject == null) {
-            currencyObject = new Currency();
-            currencies.put(currency, currencyObject);
+    private void applyUpdate(int pairId, RecordV2 newValue) {
+        final String currency = rates.currency(pairId);
+        final String targetCurrency = rates.targetCurrency(pairId);
+
+        // The bid and ask fields are parsed directly from the bytes of the
+        // value into scaled longs, without strings or a data model
+        final RatesFields fields = ratesFields;
+        if (fields == null) {
+            // The schema was rejected and has been logged
+            return;
         }
-
-        if (schema == null) {
-            updateWithoutSchema(
+        final RecordV2DecimalReader reader = fields.reader.read(newValue);
+        final boolean hasBid = reader.isDecimal(fields.bidIndex);
+        final boolean hasAsk = reader.isDecimal(fields.askIndex);
+        if (!hasBid && !reader.isEmpty(fields.bidIndex) ||
+            !hasAsk && !reader.isEmpty(fields.askIndex)) {
+            LOG.warn("Invalid rates for {}/{}", currency, targetCurrency);
+            return;
+        }
+        final long bid = hasBid ? reader.get(fields.bidIndex) : 0L;
+        final long ask = hasAsk ? reader.get(fields.askIndex) : 0L;
+        final int flags =
+            (hasBid ? RatesTable.HAS_BID : 0) |
+            (hasAsk ? RatesTable.HAS_ASK : 0);
+
+        if (!rates.set(pairId, bid, ask, flags, previousRates)) {
+            listener.onNewRate(
                 currency,
                 targetCurrency,
-                oldValue,
-                newValue,
-                currencyObject);
+                new Rates(bid, ask, flags));
         }
         else {
-            updateWithSchema(
+            // Compare with the previous rates to determine what has changed
+            final int previousFlags = (int) previousRates[2];
+            notifyChange(
                 currency,
                 targetCurrency,
-                oldValue,
-                newValue,
-                currencyObject);
+                "Bid",
+                previousFlags & RatesTable.HAS_BID,
+                previousRates[0],
+                flags & RatesTable.HAS_BID,
+                bid);
+            notifyChange(
+                currency,
+                targetCurrency,
+                "Ask",
+                previousFlags & RatesTable.HAS_ASK,
+                previousRates[1],
+                flags & RatesTable.HAS_ASK,
+                ask);
         }
     }
 
-    private void updateWithSchema(
+    private void notifyChange(
         String currency,
         String targetCurrency,
-        RecordV2 oldValue,
-        RecordV2 newValue,
-        Currency currencyObject) {
-
-        // A data model is generated using the schema allowing direct access to
-        // the fields within it
-        final RecordModel model = newValue.asModel(schema);
-        final String bid = model.get("Bid");
-        final String ask = model.get("Ask");
-
-        currencyObject.setRate(targetCurrency, bid, ask);
-
-        if (oldValue == null) {
-            listener.onNewRate(currency, targetCurrency, bid, ask);
-        }
-        else {
-            // Generate a structural delta to determine what has changed
-            final RecordV2Delta delta = newValue.diff(oldValue);
-            for (Change change : delta.changes(schema)) {
-                final String fieldName = change.fieldName();
-                listener.onRateChange(
-                    currency,
-                    targetCurrency,
-                    fieldName,
-                    model.get(fieldName));
+        String bidOrAsk,
+        int previousFlag,
+        long previousRate,
+        int flag,
+        long rate) {
+
+        if (flag == 0) {
+            if (previousFlag != 0) {
+                listener.onRateCleared(currency, targetCurrency, bidOrAsk);
             }
         }
-    }
-
-    private void updateWithoutSchema(
-        String currency,
-        String targetCurrency,
-        RecordV2 oldValue,
-        RecordV2 newValue,
-        Currency currencyObject) {
-
-        // All of the fields in the value are obtained.
-        final List<String> fields = newValue.asFields();
-        final String bid = fields.get(0);
-        final String ask = fields.get(1);
-
-        currencyObject.setRate(targetCurrency, bid, ask);
-
-        if (oldValue == null) {
-            listener.onNewRate(currency, targetCurrency, bid, ask);
-        }
-        else {
-            // Fields in the old value are obtained to determine what has
-            // changed
-            final List<String> oldfields = oldValue.asFields();
-            final String oldBid = oldfields.get(0);
-            final String oldAsk = oldfields.get(1);
-            if (!bid.equals(oldBid)) {
-                listener.onRateChange(currency, targetCurrency, "Bid", bid);
-            }
-            if (!ask.equals(oldAsk)) {
-                listener.onRateChange(currency, targetCurrency, "Ask", ask);
-            }
+        else if (previousFlag == 0 || previousRate != rate) {
+            listener.onRateChange(currency, targetCurrency, bidOrAsk, rate);
         }
     }
 
     private void removeCurrency(String currency) {
-        final Currency oldCurrency = currencies.remove(currency);
-        for (String targetCurrency : oldCurrency.rates.keySet()) {
-            listener.onRateRemoved(currency, targetCurrency);
-        }
+        rates.forEachPair(currency, pairId -> {
+            if (rates.remove(pairId)) {
+                listener.onRateRemoved(currency, rates.targetCurrency(pairId));
+            }
+        });
     }
 
     private void removeRate(
         String currency,
         String targetCurrency) {
 
-        final Currency currencyObject = currencies.get(currency);
-        if (currencyObject != null) {
-            if (currencyObject.rates.remove(targetCurrency) != null) {
-                listener.onRateRemoved(currency, targetCurrency);
-            }
+        final int pairId = rates.findPairId(currency, targetCurrency);
+        if (pairId >= 0 && rates.remove(pairId)) {
+            listener.onRateRemoved(currency, targetCurrency);
         }
     }
 
@@ -254,68 +258,127 @@ public final class ClientConsumingRecordV2Topics {
      * Close session.
      */
     public void close() {
-        currencies.clear();
+        rates.forEachPair(rates::remove);
         session.close();
     }
 
     /**
-     * Encapsulates a base currency and all of its known rates.
+     * The positions of the bid and ask fields, and a reader for them. The
+     * reader is only used by the value stream, which receives one value at
+     * a time.
      */
-    private static class Currency {
-
-        private final Map<String, Rates> rates = new HashMap<>();
-
-        private Rates getRates(String currency) {
-            return rates.get(currency);
+    private static final class RatesFields {
+        private final int bidIndex;
+        private final int askIndex;
+        private final RecordV2DecimalReader reader;
+
+        private RatesFields(int bidIndex, int askIndex) {
+            this.bidIndex = bidIndex;
+            this.askIndex = askIndex;
+            reader = new RecordV2DecimalReader(
+                FixedPoint.RATE_SCALE,
+                Math.max(bidIndex, askIndex) + 1);
         }
 
-        private void setRate(String currency, String bid, String ask) {
-            rates.put(currency, new Rates(bid, ask));
+        private static RatesFields compile(CompiledSchema schema) {
+            final DecimalAccessor bid = schema.decimalAccessor("Bid");
+            final DecimalAccessor ask = schema.decimalAccessor("Ask");
+            if (bid.getScale() != FixedPoint.RATE_SCALE ||
+                ask.getScale() != FixedPoint.RATE_SCALE) {
+                throw new IllegalArgumentException(
+                    "Rates must have scale " + FixedPoint.RATE_SCALE);
+            }
+            return new RatesFields(bid.getIndex(), ask.getIndex());
         }
-
     }
 
     /**
      * Encapsulates the rates for a particular base/target currency pair.
+     * <P>
+     * Rates are {@link FixedPoint} values scaled by
+     * {@link FixedPoint#RATE_SCALE}. Either rate may not be available.
      */
     public static final class Rates {
 
-        private final String bidRate;
-        private final String askRate;
+        private final long bid;
+        private final long ask;
+        private final int flags;
 
         /**
          * Constructor.
          *
-         * @param bid the bid rate or ""
-         * @param ask the ask rate or ""
+         * @param bid the scaled bid rate
+         * @param ask the scaled ask rate
+         * @param flags {@link RatesTable#HAS_BID} and
+         *        {@link RatesTable#HAS_ASK} if the rates are available
          */
-        private Rates(String bid, String ask) {
-            bidRate = bid;
-            askRate = ask;
+        private Rates(long bid, long ask, int flags) {
+            this.bid = bid;
+            this.ask = ask;
+            this.flags = flags;
+        }
+
+        /**
+         * @return true if the bid rate is available
+         */
+        public boolean hasBid() {
+            return (flags & RatesTable.HAS_BID) != 0;
+        }
+
+        /**
+         * @return true if the ask rate is available
+         */
+        public boolean hasAsk() {
+            return (flags & RatesTable.HAS_ASK) != 0;
         }
 
         /**
          * Returns the bid rate.
          *
+         * @return the scaled bid rate or 0 if not available
+         */
+        public long getBid() {
+            return bid;
+        }
+
+        /**
+         * Returns the ask rate.
+         *
+         * @return the scaled ask rate or 0 if not available
+         */
+        public long getAsk() {
+            return ask;
+        }
+
+        /**
+         * Returns the bid rate formatted as a decimal.
+         *
          * @return bid rate or "" if not available
          */
         public String getBidRate() {
-            return bidRate;
+            return hasBid() ?
+                FixedPoint.format(bid, FixedPoint.RATE_SCALE) :
+                "";
         }
 
         /**
-         * Returns the ask rate.
+         * Returns the ask rate formatted as a decimal.
          *
          * @return ask rate or "" if not available
          */
         public String getAskRate() {
-            return askRate;
+            return hasAsk() ?
+                FixedPoint.format(ask, FixedPoint.RATE_SCALE) :
+                "";
         }
 
     }
 
     /**
      * A listener for Rates updates.
+     * <P>
+     * Rates are {@link FixedPoint} values scaled by
+     * {@link FixedPoint#RATE_SCALE}.
      */
     public interface RatesListener {
 
@@ -324,22 +387,32 @@ public final class ClientConsumingRecordV2Topics {
          *
          * @param currency the base currency
          * @param targetCurrency the target currency
-         * @param bid rate
-         * @param ask rate
+         * @param rates the rates, either of which may not be available
          */
-        void onNewRate(String currency, String targetCurrency, String bid,
-            String ask);
+        void onNewRate(String currency, String targetCurrency, Rates rates);
 
         /**
-         * Notification of a change to the bid or ask value for a rate.
+         * Notification of a change to the bid or ask value for a rate,
+         * including a rate that has become available.
          *
          * @param currency the base currency
          * @param targetCurrency the target currency
          * @param bidOrAsk "Bid" or "Ask"
-         * @param rate the new rate
+         * @param rate the new scaled rate
          */
         void onRateChange(String currency, String targetCurrency,
-            String bidOrAsk, String rate);
+            String bidOrAsk, long rate);
+
+        /**
+         * Notification of the bid or ask value for a rate becoming
+         * unavailable.
+         *
+         * @param currency the base currency
+         * @param targetCurrency the target currency
+         * @param bidOrAsk "Bid" or "Ask"
+         */
+        void onRateCleared(String currency, String targetCurrency,
+            String bidOrAsk);
 
         /**
          * Notification of a rate being removed.
@@ -353,6 +426,14 @@ public final class ClientConsumingRecordV2Topics {
     private final class RatesValueStream
         extends ValueStream.Default<RecordV2> {
 
+        private boolean hasSchema;
+
+        /**
+         * The pair ID of each topic path, or -1 if the topic is not a rates
+         * topic. Pair IDs are never reused, so they can be cached.
+         */
+        private final Map<String, Integer> pairIds = new HashMap<>();
+
         @Override
         public void onSubscription(String topicPath, TopicSpecification specification) {
             final boolean isRatesTopic = Diffusion.topicSelectors().parse("?FX/.*/.*").selects(topicPath);
@@ -361,34 +442,66 @@ public final class ClientConsumingRecordV2Topics {
                 final String schemaString = specification.getProperties().get(TopicSpecification.SCHEMA);
                 // If a schema is provided on subscription, retrieve it and set it once
                 // All schemas are identical for rates topics.
-                if (schemaString != null && schema == null) {
+                if (schemaString != null && !hasSchema) {
                     try {
-                        schema = Diffusion.dataTypes().recordV2().parseSchema(schemaString);
+                        ratesFields = RatesFields.compile(CompiledSchema.compile(
+                            Diffusion.dataTypes().recordV2().parseSchema(schemaString)));
+                        hasSchema = true;
                     }
                     catch (SchemaParseException e) {
-                        LOG.error("Unable to parse recordV2 schema", e);
+                        LOG.error("Unable to parse recordV2 schema, " +
+                            "ignoring rates updates", e);
+                        rejectSchema();
+                    }
+                    catch (IllegalArgumentException e) {
+                        LOG.error("Unable to compile recordV2 schema, " +
+                            "ignoring rates updates", e);
+                        rejectSchema();
                     }
                 }
             }
         }
 
+        /**
+         * Stop applying updates rather than reading the first two fields,
+         * which may not be the rates or may have another scale.
+         */
+        private void rejectSchema() {
+            ratesFields = null;
+            hasSchema = true;
+        }
+
         @Override
         public void onValue(String topicPath, TopicSpecification specification,
             RecordV2 oldValue, RecordV2 newValue) {
-            final String[] topicElements = elements(topicPath);
-            // It is only a rate update if topic has 2 elements below root path
-            if (topicElements.length == 2) {
-                applyUpdate(
-                    topicElements[0], // The base currency
-                    topicElements[1], // The target currency
-                    oldValue,
-                    newValue);
+            final int pairId = pairIds.computeIfAbsent(topicPath, path -> {
+                final String[] topicElements = elements(path);
+                // It is only a rate update if topic has 2 elements below root
+                // path
+                if (topicElements.length != 2) {
+                    return -1;
+                }
+                try {
+                    return rates.pairId(
+                        topicElements[0], // The base currency
+                        topicElements[1]); // The target currency
+                }
+                catch (IllegalStateException e) {
+                    LOG.warn("No space for the rates of {}", path);
+                    return -1;
+                }
+            });
+
+            if (pairId >= 0) {
+                applyUpdate(pairId, newValue);
             }
         }
 
         @Override
         public void onUnsubscription(String topicPath,
             TopicSpecification specification, UnsubscribeReason reason) {
+            pairIds.remove(topicPath);
+
             final String[] topicElements = elements(topicPath);
             if (topicElements.length == 2) {
                 removeRate(topicElements[0], topicElements[1]);
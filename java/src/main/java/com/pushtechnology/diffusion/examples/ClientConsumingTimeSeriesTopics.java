@@ -14,20 +14,52 @@
  *******************************************************************************/
 package com.pushtechnology.diffusion.examples;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.pushtechnology.diffusion.client.Diffusion;
+import com.pushtechnology.diffusion.client.callbacks.ErrorReason;
 import com.pushtechnology.diffusion.client.features.TimeSeries;
 import com.pushtechnology.diffusion.client.features.TimeSeries.Event;
+import com.pushtechnology.diffusion.client.features.TimeSeries.QueryResult;
 import com.pushtechnology.diffusion.client.features.Topics;
+import com.pushtechnology.diffusion.client.features.Topics.UnsubscribeReason;
 import com.pushtechnology.diffusion.client.features.Topics.ValueStream;
 import com.pushtechnology.diffusion.client.session.Session;
+import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
 
 /**
  * This demonstrates a client session subscribing to a
  * {@link TimeSeries} topic.
+ * <P>
+ * A consumer can be created with a {@link SequenceCheckpoints} file, in
+ * which case the sequence number of each event is checkpointed after it is
+ * passed to the value stream. When the consumer is restarted, the events it
+ * missed are retrieved with a range query from the checkpoint before the
+ * events from the subscription are passed on. The missed events are passed
+ * on with their latest values, in the order of the original events. Each
+ * event is passed to the value stream at most once.
+ * <P>
+ * Edits made while the consumer was away to events before the checkpoint are
+ * only passed on if the consumer is created with an edit window. Finding them
+ * costs a query of every retained event in the window, so by default a
+ * restarted consumer only queries the events it missed.
  *
  * @author DiffusionData Limited
  * @since 6.0
@@ -37,8 +69,11 @@ import com.pushtechnology.diffusion.client.session.Session;
 public class ClientConsumingTimeSeriesTopics {
 
     private static final String TOPIC_PATH = "foo/timeseries";
+    private static final Logger LOG =
+        LoggerFactory.getLogger(ClientConsumingTimeSeriesTopics.class);
 
     private final Session session;
+    private final SequenceCheckpoints checkpoints;
 
     /**
      * Constructor.
@@ -50,16 +85,434 @@ public class ClientConsumingTimeSeriesTopics {
         throws InterruptedException, ExecutionException, TimeoutException {
         session = Diffusion.sessions().principal("client").password("password")
             .open(serverUrl);
+        checkpoints = null;
 
         final Topics topics = session.feature(Topics.class);
         topics.addTimeSeriesStream(TOPIC_PATH, Long.class, valueStream);
         topics.subscribe(TOPIC_PATH).get(5, TimeUnit.SECONDS);
     }
 
+    /**
+     * Constructor for a consumer that resumes from the last checkpointed
+     * event.
+     *
+     * @param serverUrl for example "ws://diffusion.example.com:80"
+     * @param valueStream value stream to receive time series topic events
+     * @param checkpointFile the file to record the last processed sequence
+     *        number in
+     */
+    public ClientConsumingTimeSeriesTopics(
+        String serverUrl,
+        ValueStream<Event<Long>> valueStream,
+        Path checkpointFile)
+        throws IOException, InterruptedException, ExecutionException,
+        TimeoutException {
+
+        this(serverUrl, valueStream, checkpointFile, 0);
+    }
+
+    /**
+     * Constructor for a consumer that resumes from the last checkpointed
+     * event, and also passes on edits made while it was away to recent
+     * events before the checkpoint.
+     * <P>
+     * The edits are found by querying every retained event in the edit
+     * window, original events included, so a large window makes each
+     * restart download that much history again.
+     *
+     * @param serverUrl for example "ws://diffusion.example.com:80"
+     * @param valueStream value stream to receive time series topic events
+     * @param checkpointFile the file to record the last processed sequence
+     *        number in
+     * @param editWindow the number of sequence numbers up to and including
+     *        the checkpoint whose events are checked for missed edits; 0 to
+     *        not check for them
+     */
+    public ClientConsumingTimeSeriesTopics(
+        String serverUrl,
+        ValueStream<Event<Long>> valueStream,
+        Path checkpointFile,
+        long editWindow)
+        throws IOException, InterruptedException, ExecutionException,
+        TimeoutException {
+
+        if (editWindow < 0) {
+            throw new IllegalArgumentException(
+                "Negative edit window: " + editWindow);
+        }
+
+        checkpoints = new SequenceCheckpoints(checkpointFile);
+        session = Diffusion.sessions().principal("client").password("password")
+            .open(serverUrl);
+
+        final Topics topics = session.feature(Topics.class);
+        topics.addTimeSeriesStream(
+            TOPIC_PATH,
+            Long.class,
+            new ResumingStream(
+                session.feature(TimeSeries.class),
+                valueStream,
+                checkpoints.getSequence(TOPIC_PATH),
+                editWindow));
+        topics.subscribe(TOPIC_PATH).get(5, TimeUnit.SECONDS);
+    }
+
     /**
      * Close the session.
      */
     public void close() {
         session.close();
+
+        if (checkpoints != null) {
+            try {
+                checkpoints.close();
+            }
+            catch (IOException e) {
+                LOG.warn("Failed to close checkpoints", e);
+            }
+        }
+    }
+
+    /**
+     * A value stream that passes on events after the last checkpointed
+     * event, and checkpoints each event it passes on.
+     * <P>
+     * When the first event of a subscription arrives, the events missed
+     * since the checkpoint are queried in two passes, each in chunks of
+     * {@value #CATCH_UP_CHUNK_SIZE} sequence numbers so that a long outage
+     * is not loaded in one result:
+     * <ol>
+     * <li>If there is an edit window, edits made during the outage to events
+     * in the window are found with edit range queries over the window, and
+     * passed on in sequence order. The checkpoint is not advanced, so if the
+     * consumer stops during this pass the edits are passed on again when it
+     * resumes.
+     * <li>The original events in the missed range are queried with their
+     * latest values and passed on in the order of the original events. The
+     * checkpoint is advanced after each chunk.
+     * </ol>
+     * Events from the subscription are held until the queries complete, then
+     * passed on after the queried events. Events that have already been
+     * passed on are dropped.
+     * <P>
+     * A failed query is retried. If it fails {@value #MAX_CATCH_UP_ATTEMPTS}
+     * times, the held events are discarded and the value stream is closed
+     * with an error, so that no event is passed on out of order. The
+     * checkpoint is left at the last event passed on, so a later consumer
+     * resumes from there.
+     */
+    private final class ResumingStream implements ValueStream<Event<Long>> {
+        private static final int MAX_CATCH_UP_ATTEMPTS = 3;
+        private static final int CATCH_UP_CHUNK_SIZE = 10_000;
+
+        private final TimeSeries timeSeries;
+        private final ValueStream<Event<Long>> delegate;
+        private final long editWindow;
+        private final Lock lock = new ReentrantLock();
+
+        // Guarded by lock
+        private final List<Event<Long>> heldEvents = new ArrayList<>();
+        private long lastSequence;
+        private Event<Long> lastEvent;
+        private TopicSpecification specification;
+        private boolean subscribing = true;
+        private boolean catchingUp;
+        private boolean failed;
+        // The checkpoint when catching up started, and the sequence number
+        // before the first event of the subscription
+        private long resumedFrom;
+        private long catchUpTo;
+        // Sequence numbers of edits passed on while catching up that may
+        // also be held
+        private final Set<Long> queriedEdits = new HashSet<>();
+
+        ResumingStream(
+            TimeSeries timeSeries,
+            ValueStream<Event<Long>> delegate,
+            long lastSequence,
+            long editWindow) {
+
+            this.timeSeries = timeSeries;
+            this.delegate = delegate;
+            this.lastSequence = lastSequence;
+            this.editWindow = editWindow;
+        }
+
+        @Override
+        public void onSubscription(
+            String topicPath,
+            TopicSpecification topicSpecification) {
+
+            lock.lock();
+            try {
+                subscribing = true;
+            }
+            finally {
+                lock.unlock();
+            }
+            delegate.onSubscription(topicPath, topicSpecification);
+        }
+
+        @Override
+        public void onValue(
+            String topicPath,
+            TopicSpecification topicSpecification,
+            Event<Long> oldValue,
+            Event<Long> newValue) {
+
+            lock.lock();
+            try {
+                if (failed) {
+                    return;
+                }
+
+                specification = topicSpecification;
+
+                if (subscribing) {
+                    subscribing = false;
+
+                    if (lastSequence >= 0 &&
+                        newValue.sequence() > lastSequence + 1) {
+
+                        catchingUp = true;
+                        heldEvents.add(newValue);
+                        resumedFrom = lastSequence;
+                        catchUpTo = newValue.sequence() - 1;
+                        startCatchUp(topicPath);
+                        return;
+                    }
+                }
+
+                if (catchingUp) {
+                    heldEvents.add(newValue);
+                }
+                else {
+                    deliver(topicPath, newValue, newValue.sequence());
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Scan the edit window for edits of earlier events, if there is one,
+         * then query the missed range. Called with the lock held.
+         */
+        private void startCatchUp(String topicPath) {
+            if (editWindow > 0) {
+                scanEdits(
+                    topicPath,
+                    Math.max(0, resumedFrom - editWindow + 1));
+            }
+            else {
+                catchUp(topicPath, resumedFrom + 1);
+            }
+        }
+
+        /**
+         * Pass on the edits made while the consumer was away to the events
+         * in a chunk of the edit window, then scan the next chunk. Called
+         * with the lock held.
+         */
+        private void scanEdits(String topicPath, long chunkStart) {
+            if (chunkStart > resumedFrom) {
+                catchUp(topicPath, resumedFrom + 1);
+                return;
+            }
+
+            final long chunkEnd = chunkEnd(chunkStart, resumedFrom);
+
+            query(
+                topicPath,
+                () -> timeSeries.rangeQuery()
+                    .forEdits()
+                    .from(chunkStart)
+                    .to(chunkEnd)
+                    .editRange()
+                    .from(resumedFrom + 1)
+                    .to(catchUpTo)
+                    .as(Long.class)
+                    .selectFrom(topicPath),
+                result -> {
+                    // The result also has the original events of the chunk
+                    result.stream()
+                        .filter(Event::isEditEvent)
+                        .sorted(Comparator.comparingLong(Event::sequence))
+                        .forEach(event -> pass(topicPath, event));
+
+                    scanEdits(topicPath, chunkEnd + 1);
+                },
+                1);
+        }
+
+        /**
+         * Pass on the original events of a chunk of the missed range with
+         * their latest values, then query the next chunk. Called with the
+         * lock held.
+         */
+        private void catchUp(String topicPath, long chunkStart) {
+            if (chunkStart > catchUpTo) {
+                finishCatchUp(topicPath);
+                return;
+            }
+
+            final long chunkEnd = chunkEnd(chunkStart, catchUpTo);
+
+            query(
+                topicPath,
+                () -> timeSeries.rangeQuery()
+                    .from(chunkStart)
+                    .to(chunkEnd)
+                    .as(Long.class)
+                    .selectFrom(topicPath),
+                result -> {
+                    result.stream().forEach(event -> {
+                        // The latest value of a missed event can be an edit
+                        // made after the subscription started, which is also
+                        // held or still to come from the subscription
+                        if (event.sequence() > catchUpTo) {
+                            queriedEdits.add(event.sequence());
+                        }
+                        deliver(
+                            topicPath,
+                            event,
+                            event.originalEvent().sequence());
+                    });
+
+                    // Every event of the chunk has been handled
+                    if (chunkEnd > lastSequence) {
+                        checkpoint(topicPath, chunkEnd);
+                    }
+
+                    catchUp(topicPath, chunkEnd + 1);
+                },
+                1);
+        }
+
+        /**
+         * Pass on the held events. Called with the lock held.
+         */
+        private void finishCatchUp(String topicPath) {
+            heldEvents.stream()
+                .filter(event -> !queriedEdits.contains(event.sequence()))
+                .forEach(event -> deliver(topicPath, event, event.sequence()));
+            heldEvents.clear();
+            queriedEdits.clear();
+            catchingUp = false;
+        }
+
+        private long chunkEnd(long chunkStart, long toSequence) {
+            return chunkStart +
+                Math.min(CATCH_UP_CHUNK_SIZE - 1, toSequence - chunkStart);
+        }
+
+        /**
+         * Run a query, retrying it if it fails, and pass its result to a
+         * consumer with the lock held.
+         */
+        private void query(
+            String topicPath,
+            Supplier<CompletableFuture<QueryResult<Long>>> query,
+            Consumer<QueryResult<Long>> onResult,
+            int attempt) {
+
+            query.get().whenComplete((result, ex) -> {
+                lock.lock();
+                try {
+                    if (failed) {
+                        return;
+                    }
+
+                    if (ex == null) {
+                        onResult.accept(result);
+                    }
+                    else if (attempt < MAX_CATCH_UP_ATTEMPTS) {
+                        LOG.warn(
+                            "Failed to query missed events of {}, retrying",
+                            topicPath,
+                            ex);
+                        query(topicPath, query, onResult, attempt + 1);
+                    }
+                    else {
+                        onCatchUpFailure(topicPath, ex);
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
+            });
+        }
+
+        private void onCatchUpFailure(String topicPath, Throwable ex) {
+            LOG.error(
+                "Failed to query missed events of {}, closing stream",
+                topicPath,
+                ex);
+            failed = true;
+            catchingUp = false;
+            heldEvents.clear();
+            queriedEdits.clear();
+            delegate.onError(ErrorReason.COMMUNICATION_FAILURE);
+        }
+
+        /**
+         * Pass on an event if it is after the last event passed on.
+         *
+         * @param sequence the position of the event in the series; the
+         *        sequence number of the original event for a queried event,
+         *        the sequence number of the event itself for an event from
+         *        the subscription
+         */
+        private void deliver(
+            String topicPath,
+            Event<Long> event,
+            long sequence) {
+
+            if (sequence <= lastSequence) {
+                return;
+            }
+
+            pass(topicPath, event);
+            checkpoint(topicPath, sequence);
+        }
+
+        /**
+         * Pass on an event without advancing the checkpoint.
+         */
+        private void pass(String topicPath, Event<Long> event) {
+            delegate.onValue(topicPath, specification, lastEvent, event);
+            lastEvent = event;
+        }
+
+        private void checkpoint(String topicPath, long sequence) {
+            lastSequence = sequence;
+
+            try {
+                checkpoints.checkpoint(topicPath, lastSequence);
+            }
+            catch (IOException e) {
+                LOG.warn("Failed to checkpoint {}", topicPath, e);
+            }
+        }
+
+        @Override
+        public void onUnsubscription(
+            String topicPath,
+            TopicSpecification topicSpecification,
+            UnsubscribeReason reason) {
+
+            delegate.onUnsubscription(topicPath, topicSpecification, reason);
+        }
+
+        @Override
+        public void onClose() {
+            delegate.onClose();
+        }
+
+        @Override
+        public void onError(ErrorReason errorReason) {
+            delegate.onError(errorReason);
+        }
     }
 }
@@ -144,4 +144,134 @@ public final class ClientCreatingRecordV2Schema {
             .build();
     }
 
+    /**
+     * Example of deriving the name and address schema from an annotated class
+     * with a {@link RecordV2Codec}. The codec can then encode and decode
+     * {@link NameAndAddress} objects as values of the schema.
+     *
+     * @return a schema equivalent to {@link #createNameAndAddressSchema()}
+     */
+    public Schema createNameAndAddressSchemaFromClass() {
+        return RecordV2Codec.forClass(NameAndAddress.class).getSchema();
+    }
+
+    /**
+     * A person's name and address, mapped to the single record of the name
+     * and address schema.
+     */
+    @RecordV2Codec.Record("nameAndAddress")
+    public static final class NameAndAddress {
+        @RecordV2Codec.Field(0)
+        private String firstName;
+        @RecordV2Codec.Field(1)
+        private String surname;
+        @RecordV2Codec.Field(2)
+        private int houseNumber;
+        @RecordV2Codec.Field(3)
+        private String street;
+        @RecordV2Codec.Field(4)
+        private String town;
+        @RecordV2Codec.Field(5)
+        private String state;
+        @RecordV2Codec.Field(6)
+        private String postCode;
+
+        /**
+         * @return the first name
+         */
+        public String getFirstName() {
+            return firstName;
+        }
+
+        /**
+         * @param firstName the first name
+         */
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        /**
+         * @return the surname
+         */
+        public String getSurname() {
+            return surname;
+        }
+
+        /**
+         * @param surname the surname
+         */
+        public void setSurname(String surname) {
+            this.surname = surname;
+        }
+
+        /**
+         * @return the house number
+         */
+        public int getHouseNumber() {
+            return houseNumber;
+        }
+
+        /**
+         * @param houseNumber the house number
+         */
+        public void setHouseNumber(int houseNumber) {
+            this.houseNumber = houseNumber;
+        }
+
+        /**
+         * @return the street
+         */
+        public String getStreet() {
+            return street;
+        }
+
+        /**
+         * @param street the street
+         */
+        public void setStreet(String street) {
+            this.street = street;
+        }
+
+        /**
+         * @return the town
+         */
+        public String getTown() {
+            return town;
+        }
+
+        /**
+         * @param town the town
+         */
+        public void setTown(String town) {
+            this.town = town;
+        }
+
+        /**
+         * @return the state
+         */
+        public String getState() {
+            return state;
+        }
+
+        /**
+         * @param state the state
+         */
+        public void setState(String state) {
+            this.state = state;
+        }
+
+        /**
+         * @return the post code
+         */
+        public String getPostCode() {
+            return postCode;
+        }
+
+        /**
+         * @param postCode the post code
+         */
+        public void setPostCode(String postCode) {
+            this.postCode = postCode;
+        }
+    }
 }
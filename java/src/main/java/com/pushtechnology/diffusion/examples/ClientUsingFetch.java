@@ -15,17 +15,30 @@
 package com.pushtechnology.diffusion.examples;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
-
+import static java.util.stream.Collectors.toList;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.pushtechnology.diffusion.client.Diffusion;
 import com.pushtechnology.diffusion.client.features.Topics;
+import com.pushtechnology.diffusion.client.features.Topics.FetchRequest;
 import com.pushtechnology.diffusion.client.features.Topics.FetchResult;
 import com.pushtechnology.diffusion.client.features.Topics.FetchResult.TopicResult;
 import com.pushtechnology.diffusion.client.session.Session;
@@ -48,8 +61,14 @@ public final class ClientUsingFetch {
     private static final Logger LOG =
         LoggerFactory.getLogger(ClientUsingFetch.class);
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    /** The number of pages each range fetches ahead in streamAllTopics. */
+    private static final int RANGE_BUFFERED_PAGES = 4;
+
     private final Session session;
     private final Topics topics;
+    private final TopicValueCache<String> stringValueCache;
 
     /**
      * Constructor.
@@ -61,6 +80,9 @@ public final class ClientUsingFetch {
                 .open(serverUrl);
 
         topics = session.feature(Topics.class);
+
+        stringValueCache =
+            new TopicValueCache<>(topics, String.class, 10_000, 1, SECONDS);
     }
 
     /**
@@ -116,6 +138,41 @@ public final class ClientUsingFetch {
         return result != null ? result.value() : null;
     }
 
+    /**
+     * This shows how to obtain the value of a specified string topic from a
+     * local cache, which is filled by fetching values on demand.
+     * <p>
+     * Fetched values are reused for one second. Values of topics selected by
+     * {@link #keepStringTopicValuesFresh(String)} are always served from the
+     * cache.
+     */
+    public String getCachedStringTopicValue(String topicPath)
+        throws InterruptedException, ExecutionException, TimeoutException {
+
+        return stringValueCache.get(topicPath).get(5, SECONDS);
+    }
+
+    /**
+     * This shows how to keep the cached values of frequently read string
+     * topics up to date by subscribing to them.
+     */
+    public void keepStringTopicValuesFresh(String selector)
+        throws InterruptedException, ExecutionException, TimeoutException {
+
+        stringValueCache.subscribe(selector).get(5, SECONDS);
+    }
+
+    /**
+     * Log the cache metrics.
+     */
+    public void logCacheMetrics() {
+        LOG.info(
+            "String value cache hits {}, misses {}, evictions {}",
+            stringValueCache.getHits(),
+            stringValueCache.getMisses(),
+            stringValueCache.getEvictions());
+    }
+
     /**
      * This shows an example of retrieving all JSON topics that match a
      * specified selector with values.
@@ -183,6 +240,103 @@ public final class ClientUsingFetch {
             .fetch("*.*").get(5, SECONDS);
     }
 
+    /**
+     * Shows how to pass an inclusive range of topics, with values, to a sink
+     * one at a time.
+     * <p>
+     * Unlike {@link #fetchRange(String, String)}, the range is fetched in
+     * pages of the size specified by a {@link FetchCursor}, so only one page
+     * of values is held at a time.
+     *
+     * @return the number of results passed to the sink
+     */
+    public long fetchRange(String from, String to, int pageSize, FetchSink sink)
+        throws IOException {
+
+        final FetchCursor<Bytes> cursor = new FetchCursor<>(
+            topics.fetchRequest().from(from).to(to).withValues(Bytes.class),
+            "*.*",
+            pageSize);
+
+        long count = 0;
+        while (cursor.hasNext()) {
+            sink.accept(cursor.next());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Shows how to pass the next group of topics, with values, from a
+     * specified start point to a sink.
+     *
+     * @return true if there may be more results
+     * @see #next(String, int)
+     */
+    public boolean next(String after, int limit, FetchSink sink)
+        throws InterruptedException, ExecutionException, TimeoutException,
+        IOException {
+
+        return drain(next(after, limit), sink);
+    }
+
+    /**
+     * Shows how to pass the prior group of topics, with values, from a
+     * specified end point to a sink.
+     *
+     * @return true if there may be more results
+     * @see #prior(String, int)
+     */
+    public boolean prior(String before, int limit, FetchSink sink)
+        throws InterruptedException, ExecutionException, TimeoutException,
+        IOException {
+
+        return drain(prior(before, limit), sink);
+    }
+
+    /**
+     * Shows how to export an inclusive range of topics to a file.
+     * <p>
+     * Each value is copied from the fetch result straight into the write
+     * buffer of the file, so only one page of values is held at a time. The
+     * file is forced to storage before it is closed.
+     *
+     * @param maxSize the maximum size of the file
+     * @return the number of bytes written
+     * @throws IOException if the file could not be written or the range does
+     *         not fit in {@code maxSize} bytes
+     */
+    public long exportRange(
+        String from,
+        String to,
+        int pageSize,
+        Path file,
+        long maxSize) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            final SizeLimitedOutputStream out = new SizeLimitedOutputStream(
+                new BufferedOutputStream(
+                    Channels.newOutputStream(channel),
+                    EXPORT_BUFFER_SIZE),
+                maxSize);
+
+            final long count =
+                fetchRange(from, to, pageSize, FetchSink.writingTo(out));
+
+            out.flush();
+            channel.force(true);
+
+            final long size = out.getSize();
+            LOG.info("Exported {} topics, {} bytes, to {}", count, size, file);
+            return size;
+        }
+    }
+
     /**
      * Shows how to utilise deep branching limits, with values, from
      * a start point and limiting the number of matching topics.
@@ -201,6 +355,8 @@ public final class ClientUsingFetch {
     /**
      * This example shows how to log the values of all STRING topics, grouped
      * into pages of size as specified.
+     *
+     * @see #streamAllStringTopics(int)
      */
     public void listAllStringTopics(int pageSize)
         throws InterruptedException, ExecutionException, TimeoutException {
@@ -226,6 +382,87 @@ public final class ClientUsingFetch {
         }
     }
 
+    /**
+     * This example shows how to stream the results of all STRING topics,
+     * fetched in pages of the size specified.
+     * <p>
+     * Unlike {@link #listAllStringTopics(int)}, each page is requested as soon
+     * as the previous page arrives, so it is fetched while the previous page
+     * is being consumed.
+     */
+    public Stream<TopicResult<String>> streamAllStringTopics(int pageSize) {
+        return new FetchCursor<>(
+            topics.fetchRequest().withValues(String.class),
+            "*.*",
+            pageSize).stream();
+    }
+
+    /**
+     * This example shows how to stream the results of all topics, with
+     * values, by fetching disjoint ranges of the topic tree in parallel.
+     * <p>
+     * A first fetch, without values, uses
+     * {@link Topics.FetchRequest#limitDeepBranches limitDeepBranches} to find
+     * the first topic of every branch at the split depth. These topics divide
+     * the tree into ranges, each of which is fetched in pages by a
+     * {@link FetchCursor}. Up to {@code concurrency} ranges are fetched at
+     * once, each fetching up to {@value #RANGE_BUFFERED_PAGES} pages ahead in
+     * the background, so at most {@code concurrency} times that many pages,
+     * plus the page being consumed, are held. The results are returned in
+     * topic tree order.
+     * <p>
+     * Bytes is used as the value type so that all topic types are selected.
+     *
+     * @throws IllegalArgumentException if concurrency is not positive
+     */
+    public Stream<TopicResult<Bytes>> streamAllTopics(
+        int pageSize,
+        int splitDepth,
+        int concurrency)
+        throws InterruptedException, ExecutionException, TimeoutException {
+
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException(
+                "concurrency must be positive");
+        }
+
+        final List<String> splitPoints =
+            topics.fetchRequest()
+                .limitDeepBranches(splitDepth, 1)
+                .fetch("*.*").get(5, SECONDS)
+                .results()
+                .stream()
+                .map(TopicResult::path)
+                .collect(toList());
+
+        final FetchRequest<Bytes> request =
+            topics.fetchRequest().withValues(Bytes.class);
+
+        final List<Supplier<FetchCursor<Bytes>>> ranges = new ArrayList<>();
+        for (int i = 0; i < splitPoints.size(); i++) {
+            final FetchRequest<Bytes> from = request.from(splitPoints.get(i));
+            final FetchRequest<Bytes> range = i + 1 < splitPoints.size() ?
+                from.before(splitPoints.get(i + 1)) :
+                from;
+            ranges.add(() -> new FetchCursor<>(
+                range,
+                "*.*",
+                pageSize,
+                RANGE_BUFFERED_PAGES));
+        }
+
+        return FetchCursor.concat(ranges, concurrency);
+    }
+
+    private static boolean drain(FetchResult<Bytes> result, FetchSink sink)
+        throws IOException {
+
+        for (TopicResult<Bytes> r : result.results()) {
+            sink.accept(r);
+        }
+        return result.hasMore();
+    }
+
     private static boolean logPage(int pageNumber, FetchResult<String> result) {
         final List<TopicResult<String>> results = result.results();
         if (results.size() > 0) {
@@ -244,4 +481,42 @@ public final class ClientUsingFetch {
         session.close();
     }
 
+    /**
+     * Counts the bytes written to a stream and fails if they exceed a limit.
+     */
+    private static final class SizeLimitedOutputStream
+        extends FilterOutputStream {
+
+        private final long maxSize;
+        private long size;
+
+        SizeLimitedOutputStream(OutputStream out, long maxSize) {
+            super(out);
+            this.maxSize = maxSize;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            reserve(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            reserve(len);
+            out.write(b, off, len);
+        }
+
+        private void reserve(int length) throws IOException {
+            if (size + length > maxSize) {
+                throw new IOException(
+                    "Export exceeds the maximum size of " + maxSize + " bytes");
+            }
+            size += length;
+        }
+    }
 }
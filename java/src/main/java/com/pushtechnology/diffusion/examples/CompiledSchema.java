@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.pushtechnology.diffusion.datatype.recordv2.RecordV2;
+import com.pushtechnology.diffusion.datatype.recordv2.schema.Schema;
+
+/**
+ * A RecordV2 {@link Schema} compiled to the positions of its fields, so that
+ * the fields of a value can be read by index instead of by name.
+ * <P>
+ * Reading a value through a {@link RecordV2#asModel(Schema) model} looks up
+ * each field by name on every read. Compiling the schema resolves each name
+ * to its position in the {@link RecordV2#asFields() fields} of a value once.
+ * A {@link RecordV2DecimalReader} then reads the decimal fields at the
+ * positions and scale given by their {@link DecimalAccessor}s straight from
+ * the bytes of each value, without a model or the list of fields.
+ * <P>
+ * A field is at a fixed position if no record or field before it in the
+ * schema has a variable number of occurrences. Only fields at a fixed
+ * position can be accessed.
+ * <P>
+ * This class is immutable.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ClientConsumingRecordV2Topics
+ */
+public final class CompiledSchema {
+
+    private final Schema schema;
+    private final List<Schema.Field> fields;
+    private final Map<String, Integer> indexes;
+
+    private CompiledSchema(
+        Schema schema,
+        List<Schema.Field> fields,
+        Map<String, Integer> indexes) {
+
+        this.schema = schema;
+        this.fields = fields;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Compile a schema.
+     *
+     * @param schema the schema
+     * @return the compiled schema
+     */
+    public static CompiledSchema compile(Schema schema) {
+        final List<Schema.Field> fields = new ArrayList<>();
+        final Map<String, Integer> indexes = new HashMap<>();
+
+        compile:
+        for (Schema.Record record : schema.getRecords()) {
+            for (int r = 0; r < record.getMin(); r++) {
+                for (Schema.Field field : record.getFields()) {
+                    for (int f = 0; f < field.getMin(); f++) {
+                        final int index = fields.size();
+                        fields.add(field);
+                        indexes.put(
+                            key(record.getName(), r, field.getName(), f),
+                            index);
+                        indexes.putIfAbsent(field.getName(), index);
+                    }
+                    if (field.isVariable()) {
+                        break compile;
+                    }
+                }
+            }
+            if (record.isVariable()) {
+                break;
+            }
+        }
+
+        return new CompiledSchema(schema, unmodifiableList(fields), indexes);
+    }
+
+    /**
+     * @return the schema
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return the number of fields at a fixed position
+     */
+    public int getFixedFieldCount() {
+        return fields.size();
+    }
+
+    /**
+     * Return the position of the first occurrence of a field.
+     *
+     * @param fieldName the field name
+     * @return the index of the field in the fields of a value
+     * @throws IllegalArgumentException if there is no such field at a fixed
+     *         position
+     */
+    public int indexOf(String fieldName) {
+        return index(fieldName);
+    }
+
+    /**
+     * Return the position of an occurrence of a field.
+     *
+     * @param recordName the record name
+     * @param recordIndex the occurrence of the record
+     * @param fieldName the field name
+     * @param fieldIndex the occurrence of the field within the record
+     * @return the index of the field in the fields of a value
+     * @throws IllegalArgumentException if there is no such field at a fixed
+     *         position
+     */
+    public int indexOf(
+        String recordName,
+        int recordIndex,
+        String fieldName,
+        int fieldIndex) {
+
+        return index(key(recordName, recordIndex, fieldName, fieldIndex));
+    }
+
+    /**
+     * @param index the index of a field in the fields of a value
+     * @return the name of the field
+     */
+    public String fieldName(int index) {
+        return fields.get(index).getName();
+    }
+
+    /**
+     * Return the accessor for the first occurrence of a decimal field.
+     *
+     * @param fieldName the field name
+     * @return the accessor
+     * @throws IllegalArgumentException if there is no such decimal field at
+     *         a fixed position
+     */
+    public DecimalAccessor decimalAccessor(String fieldName) {
+        final int index = index(fieldName);
+        checkType(index, Schema.DecimalField.class);
+        return new DecimalAccessor(
+            fieldName,
+            index,
+            ((Schema.DecimalField) fields.get(index)).getScale());
+    }
+
+    private int index(String key) {
+        final Integer index = indexes.get(key);
+        if (index == null) {
+            throw new IllegalArgumentException(
+                "No field " + key + " at a fixed position");
+        }
+        return index;
+    }
+
+    private void checkType(int index, Class<? extends Schema.Field> type) {
+        if (!type.isInstance(fields.get(index))) {
+            throw new IllegalArgumentException(
+                "Field " + fieldName(index) + " is not a " +
+                type.getSimpleName());
+        }
+    }
+
+    private static String key(
+        String recordName,
+        int recordIndex,
+        String fieldName,
+        int fieldIndex) {
+
+        return recordName + "(" + recordIndex + ")." +
+            fieldName + "(" + fieldIndex + ")";
+    }
+
+    /**
+     * The position and scale of a decimal field at a fixed position.
+     */
+    public static final class DecimalAccessor {
+        private final String name;
+        private final int index;
+        private final int scale;
+
+        DecimalAccessor(String name, int index, int scale) {
+            this.name = name;
+            this.index = index;
+            this.scale = scale;
+        }
+
+        /**
+         * @return the field name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the index of the field in the fields of a value
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the scale of the field
+         */
+        public int getScale() {
+            return scale;
+        }
+    }
+}
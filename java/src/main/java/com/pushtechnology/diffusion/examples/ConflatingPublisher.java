@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.pushtechnology.diffusion.examples;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import com.pushtechnology.diffusion.client.features.TopicUpdate;
+import com.pushtechnology.diffusion.client.features.UpdateStream;
+
+/**
+ * Publishes topic values, conflating values that arrive faster than the
+ * server accepts them.
+ * <P>
+ * At most one update is in flight for each topic path and at most one value
+ * is held pending behind it. A value published while an update is in flight
+ * replaces any pending value. When the in-flight update completes, the
+ * latest pending value is sent. Under bursty input the number of updates
+ * sent, and the memory held, is bounded by the number of topics rather than
+ * the input rate, and subscribers always converge on the latest value.
+ * <P>
+ * A failed update is reported to the error handler and does not prevent
+ * later values for the same path from being sent. This includes a sender
+ * that throws instead of returning a failed future.
+ * <P>
+ * This class is thread-safe.
+ *
+ * @param <T> the value type
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class ConflatingPublisher<T> {
+
+    private final ConcurrentMap<String, PathConflator> conflators =
+        new ConcurrentHashMap<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final BiFunction<String, T, CompletableFuture<?>> sender;
+    private final BiConsumer<String, Throwable> errorHandler;
+
+    /**
+     * Constructor.
+     *
+     * @param sender sends a value to a topic path, returning a future that
+     *        completes when the server has processed it; for example
+     *        {@code (path, value) -> updateStream.set(value)} for an
+     *        {@link UpdateStream}
+     * @param errorHandler called with the path and the exception when an
+     *        update fails
+     */
+    public ConflatingPublisher(
+        BiFunction<String, T, CompletableFuture<?>> sender,
+        BiConsumer<String, Throwable> errorHandler) {
+
+        this.sender = requireNonNull(sender);
+        this.errorHandler = requireNonNull(errorHandler);
+    }
+
+    /**
+     * Create a publisher that sets topic values using the
+     * {@link TopicUpdate} feature.
+     *
+     * @param topicUpdate the topic update feature
+     * @param valueClass the value class of the topics
+     * @param errorHandler called with the path and the exception when an
+     *        update fails
+     * @param <T> the value type
+     * @return the publisher
+     */
+    public static <T> ConflatingPublisher<T> of(
+        TopicUpdate topicUpdate,
+        Class<T> valueClass,
+        BiConsumer<String, Throwable> errorHandler) {
+
+        return new ConflatingPublisher<>(
+            (path, value) -> topicUpdate.set(path, valueClass, value),
+            errorHandler);
+    }
+
+    /**
+     * Publish a value to a topic. Returns without waiting for the update to
+     * be sent.
+     *
+     * @param path the topic path
+     * @param value the value
+     */
+    public void publish(String path, T value) {
+        requireNonNull(value);
+        conflators
+            .computeIfAbsent(path, PathConflator::new)
+            .offer(value);
+    }
+
+    /**
+     * @return the number of updates sent
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * @return the number of values replaced before they could be sent
+     */
+    public long getConflatedCount() {
+        return conflated.sum();
+    }
+
+    /**
+     * The pending value and in-flight state of a single topic path.
+     */
+    private final class PathConflator {
+        private final String path;
+        private final AtomicReference<T> pending = new AtomicReference<>();
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+
+        private PathConflator(String path) {
+            this.path = path;
+        }
+
+        private void offer(T value) {
+            if (pending.getAndSet(value) != null) {
+                conflated.increment();
+            }
+            trySend();
+        }
+
+        private void trySend() {
+            // Loop in case the pending value is taken by another thread
+            // between checking for it and claiming the right to send
+            while (pending.get() != null && inFlight.compareAndSet(false, true)) {
+                final T value = pending.getAndSet(null);
+                if (value == null) {
+                    inFlight.set(false);
+                    continue;
+                }
+
+                sent.increment();
+                final CompletableFuture<?> future;
+                try {
+                    future = sender.apply(path, value);
+                }
+                // CHECKSTYLE.OFF: IllegalCatch
+                catch (RuntimeException e) {
+                    // The update was not sent, so release the path and send
+                    // any value that arrived meanwhile
+                    errorHandler.accept(path, e);
+                    inFlight.set(false);
+                    continue;
+                }
+                // CHECKSTYLE.ON: IllegalCatch
+
+                future.whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        errorHandler.accept(path, ex);
+                    }
+                    inFlight.set(false);
+                    trySend();
+                });
+                return;
+            }
+        }
+    }
+}
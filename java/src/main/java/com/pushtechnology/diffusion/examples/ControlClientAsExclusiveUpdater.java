@@ -107,21 +107,20 @@ public class ControlClientAsExclusiveUpdater {
 
         // Use the session lock to create an update stream without any other
         // session competing for a stream for the topic. Start a periodic task
-        // to poll the provider every second and update the topic. When the
-        // update stream fails, stop the scheduled task and release the lock.
+        // to poll the provider every second and update the topic. If the
+        // server falls behind, prices are conflated so only the latest is
+        // sent. When the update stream fails, stop the scheduled task and
+        // release the lock.
         final UpdateConstraint exclusiveAccessConstraint =
             updateConstraints().locked(lock);
         final UpdateStream<String> updateStream = topicUpdate.newUpdateStreamBuilder()
             .constraint(exclusiveAccessConstraint).build(TOPIC_NAME, String.class);
         final CompletableFuture<Void> failureHandler = new CompletableFuture<>();
+        final ConflatingPublisher<String> publisher = new ConflatingPublisher<>(
+            (path, price) -> updateStream.set(price),
+            (path, ex) -> failureHandler.completeExceptionally(ex));
         final ScheduledFuture<?> theFeeder = scheduler.scheduleAtFixedRate(
-            () -> updateStream
-                .set(provider.getPrice())
-                .whenComplete((result, ex) -> {
-                    if (ex != null) {
-                        failureHandler.completeExceptionally(ex);
-                    }
-                }),
+            () -> publisher.publish(TOPIC_NAME, provider.getPrice()),
             1,
             1,
             SECONDS);
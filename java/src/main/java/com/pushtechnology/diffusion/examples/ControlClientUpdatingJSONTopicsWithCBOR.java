@@ -19,16 +19,13 @@ import static com.pushtechnology.diffusion.client.topics.details.TopicSpecificat
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
-import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.pushtechnology.diffusion.client.Diffusion;
 import com.pushtechnology.diffusion.client.features.TopicUpdate;
 import com.pushtechnology.diffusion.client.features.control.topics.TopicControl;
@@ -36,7 +33,6 @@ import com.pushtechnology.diffusion.client.session.Session;
 import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
 import com.pushtechnology.diffusion.client.topics.details.TopicType;
 import com.pushtechnology.diffusion.datatype.json.JSON;
-import com.pushtechnology.diffusion.datatype.json.JSONDataType;
 
 /**
  * This example shows a control client creating a JSON topic and sending updates
@@ -71,8 +67,9 @@ public final class ControlClientUpdatingJSONTopicsWithCBOR {
     private final TopicControl topicControl;
     private final TopicUpdate topicUpdate;
     private final TopicSpecification topicSpecification;
-    private final CBORFactory cborFactory = new CBORFactory();
-    private final JSONDataType jsonDataType = Diffusion.dataTypes().json();
+    private final JSONCodec<Map<String, String>> codec =
+        JSONCodec.forType(new TypeReference<Map<String, String>>() {
+        });
 
     /**
      * Constructor.
@@ -82,8 +79,6 @@ public final class ControlClientUpdatingJSONTopicsWithCBOR {
     public ControlClientUpdatingJSONTopicsWithCBOR(String serverUrl)
         throws InterruptedException, ExecutionException, TimeoutException {
 
-        cborFactory.setCodec(new ObjectMapper());
-
         session =
             Diffusion.sessions().principal("control").password("password")
                 .open(serverUrl);
@@ -146,10 +141,7 @@ public final class ControlClientUpdatingJSONTopicsWithCBOR {
     private JSON mapToJSON(Map<String, String> values) throws IOException {
         // Use the third-party Jackson library to write out the values map as a
         // CBOR-format binary.
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        final CBORGenerator generator = cborFactory.createGenerator(baos);
-        generator.writeObject(values);
-        return jsonDataType.readValue(baos.toByteArray());
+        return codec.toJSON(values);
     }
 
     /**
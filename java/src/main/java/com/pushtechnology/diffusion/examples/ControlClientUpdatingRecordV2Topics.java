@@ -21,18 +21,23 @@ import static com.pushtechnology.diffusion.client.topics.details.TopicType.RECOR
 import static com.pushtechnology.diffusion.client.topics.details.TopicType.STRING;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.pushtechnology.diffusion.client.Diffusion;
 import com.pushtechnology.diffusion.client.features.TopicUpdate;
+import com.pushtechnology.diffusion.client.features.UpdateStream;
 import com.pushtechnology.diffusion.client.features.control.topics.TopicControl;
 import com.pushtechnology.diffusion.client.session.Session;
 import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
 import com.pushtechnology.diffusion.datatype.recordv2.RecordV2;
 import com.pushtechnology.diffusion.datatype.recordv2.RecordV2DataType;
-import com.pushtechnology.diffusion.datatype.recordv2.model.MutableRecordModel;
 import com.pushtechnology.diffusion.datatype.recordv2.schema.Schema;
 
 /**
@@ -48,6 +53,10 @@ import com.pushtechnology.diffusion.datatype.recordv2.schema.Schema;
  * The example can be used with or without the use of a schema. This is simply
  * to demonstrate the different mechanisms and is not necessarily demonstrating
  * the most efficient way to update such a topic.
+ * <P>
+ * Rates are published through an {@link UpdateStream} for each rate topic,
+ * so the server can send subscribers deltas from the previous value. A rate
+ * that has not changed since it was last published is not sent.
  *
  * @author DiffusionData Limited
  * @since 6.0
@@ -57,12 +66,30 @@ public final class ControlClientUpdatingRecordV2Topics {
 
     private static final String ROOT_TOPIC = "FX";
 
+    /** The RecordV2 delimiter between fields. */
+    private static final byte FIELD_DELIMITER = 0x02;
+
+    /** The RecordV2 marker of an empty field. */
+    private static final byte EMPTY_FIELD = 0x03;
+
+    /** Flag set if a bid rate is available. */
+    private static final int HAS_BID = 1;
+
+    /** Flag set if an ask rate is available. */
+    private static final int HAS_ASK = 2;
+
     private final Session session;
     private final TopicControl topicControl;
     private final TopicSpecification topicSpecification;
     private final Schema schema;
     private final RecordV2DataType dataType;
 
+    /**
+     * The rate streams of each target currency, by base currency.
+     */
+    private final Map<String, Map<String, RateStream>> rateStreams =
+        new ConcurrentHashMap<>();
+
     /**
      * Constructor.
      *
@@ -92,7 +119,10 @@ public final class ControlClientUpdatingRecordV2Topics {
 
         if (withSchema) {
             schema = dataType.schemaBuilder()
-                .record("Rates").decimal("Bid", 5).decimal("Ask", 5).build();
+                .record("Rates")
+                .decimal("Bid", FixedPoint.RATE_SCALE)
+                .decimal("Ask", FixedPoint.RATE_SCALE)
+                .build();
             // Create the topic specification to be used for all rates topics
             topicSpecification =
                 newTopicSpecification(RECORD_V2)
@@ -138,11 +168,12 @@ public final class ControlClientUpdatingRecordV2Topics {
      *
      * @param targetCurrency the target currency
      *
-     * @param bid the new bid rate
+     * @param bid the new bid rate, or an empty string if unavailable
      *
-     * @param ask the new ask rate
+     * @param ask the new ask rate, or an empty string if unavailable
      * @return a CompletableFuture that completes when a response is received
      *         from the server
+     * @throws NumberFormatException if a rate is neither empty nor a decimal
      */
     public CompletableFuture<?> setRate(
         String currency,
@@ -150,24 +181,88 @@ public final class ControlClientUpdatingRecordV2Topics {
         String bid,
         String ask) {
 
-        final RecordV2 value;
-        if (schema == null) {
-            value = dataType.valueBuilder().addFields(bid, ask).build();
-        }
-        else {
-            // Mutable models could be kept and reused but for this simple
-            // example one is created every time
-            final MutableRecordModel model =
-                schema.createMutableModel();
-            model.set("Bid", bid);
-            model.set("Ask", ask);
-            value = model.asValue();
+        return setRate(
+            currency,
+            targetCurrency,
+            parseRate(bid),
+            parseRate(ask));
+    }
+
+    /**
+     * Set a rate from {@link FixedPoint} values scaled by
+     * {@link FixedPoint#RATE_SCALE}, either of which may be unavailable.
+     * <P>
+     * An unavailable rate is published as an empty field.
+     *
+     * @param currency the base currency
+     *
+     * @param targetCurrency the target currency
+     *
+     * @param bid the new scaled bid rate, or empty if unavailable
+     *
+     * @param ask the new scaled ask rate, or empty if unavailable
+     * @return a CompletableFuture that completes when a response is received
+     *         from the server, or immediately if the rates are unchanged
+     */
+    public CompletableFuture<?> setRate(
+        String currency,
+        String targetCurrency,
+        OptionalLong bid,
+        OptionalLong ask) {
+
+        return rateStream(currency, targetCurrency).set(
+            bid.orElse(0L),
+            ask.orElse(0L),
+            (bid.isPresent() ? HAS_BID : 0) | (ask.isPresent() ? HAS_ASK : 0));
+    }
+
+    /**
+     * Set a rate from {@link FixedPoint} values scaled by
+     * {@link FixedPoint#RATE_SCALE}.
+     * <P>
+     * The rates are formatted directly into the bytes of the RecordV2 value,
+     * which is the same with or without a schema, rather than through
+     * strings or a data model. The value is set on the update stream of the
+     * rate topic, unless the rates are the same as the last rates set and no
+     * update of the stream has failed. Setting unchanged rates of a pair that
+     * already has an update stream only allocates the completed result.
+     *
+     * @param currency the base currency
+     *
+     * @param targetCurrency the target currency
+     *
+     * @param bid the new scaled bid rate
+     *
+     * @param ask the new scaled ask rate
+     * @return a CompletableFuture that completes when a response is received
+     *         from the server, or immediately if the rates are unchanged
+     */
+    public CompletableFuture<?> setRate(
+        String currency,
+        String targetCurrency,
+        long bid,
+        long ask) {
+
+        return rateStream(currency, targetCurrency)
+            .set(bid, ask, HAS_BID | HAS_ASK);
+    }
+
+    private RateStream rateStream(String currency, String targetCurrency) {
+        // Look up an existing stream without the capturing lambdas of
+        // computeIfAbsent, which are allocated on every call
+        final Map<String, RateStream> streams = rateStreams.get(currency);
+        RateStream stream =
+            streams == null ? null : streams.get(targetCurrency);
+
+        if (stream == null) {
+            stream = rateStreams
+                .computeIfAbsent(currency, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(
+                    targetCurrency,
+                    t -> new RateStream(currency, targetCurrency));
         }
 
-        return session.feature(TopicUpdate.class).set(
-            rateTopicName(currency, targetCurrency),
-            RecordV2.class,
-            value);
+        return stream;
     }
 
     /**
@@ -182,6 +277,11 @@ public final class ControlClientUpdatingRecordV2Topics {
         String targetCurrency)
         throws InterruptedException, ExecutionException, TimeoutException {
 
+        final Map<String, RateStream> streams = rateStreams.get(currency);
+        if (streams != null) {
+            streams.remove(targetCurrency);
+        }
+
         topicControl.removeTopics(
             rateTopicName(currency, targetCurrency))
             .get(5, SECONDS);
@@ -194,6 +294,7 @@ public final class ControlClientUpdatingRecordV2Topics {
      */
     public void removeCurrency(String currency)
         throws InterruptedException, ExecutionException, TimeoutException {
+        rateStreams.remove(currency);
         topicControl
             .removeTopics(String.format("?%s/%s//", ROOT_TOPIC, currency))
             .get(5, SECONDS);
@@ -206,6 +307,12 @@ public final class ControlClientUpdatingRecordV2Topics {
         session.close();
     }
 
+    private static OptionalLong parseRate(String rate) {
+        return rate.isEmpty() ?
+            OptionalLong.empty() :
+            OptionalLong.of(FixedPoint.parse(rate, FixedPoint.RATE_SCALE));
+    }
+
     /**
      * Generates a hierarchical topic name for a rate topic.
      * <P>
@@ -220,4 +327,112 @@ public final class ControlClientUpdatingRecordV2Topics {
         return String.format("%s/%s/%s", ROOT_TOPIC, currency, targetCurrency);
     }
 
+    /**
+     * The update stream of a rate topic, with its path and the last rates
+     * set.
+     * <P>
+     * If an update fails the update stream can no longer be used, so the
+     * rate stream is discarded and the next rates set create a new one.
+     */
+    private final class RateStream {
+        private final String currency;
+        private final String targetCurrency;
+        private final UpdateStream<RecordV2> updateStream;
+        private final Lock lock = new ReentrantLock();
+
+        // Guarded by lock
+        private boolean hasRates;
+        private long lastBid;
+        private long lastAsk;
+        private int lastFlags;
+        // Set once an update has failed, as the last rates may not have been
+        // published
+        private boolean failed;
+
+        RateStream(String currency, String targetCurrency) {
+            this.currency = currency;
+            this.targetCurrency = targetCurrency;
+            updateStream = session.feature(TopicUpdate.class)
+                .newUpdateStreamBuilder()
+                .build(rateTopicName(currency, targetCurrency), RecordV2.class);
+        }
+
+        /**
+         * @param flags {@code HAS_BID} and {@code HAS_ASK} for the rates
+         *        that are available; a rate that is not available is ignored
+         *        and published as an empty field
+         */
+        CompletableFuture<?> set(long newBid, long newAsk, int flags) {
+            final long bid = (flags & HAS_BID) == 0 ? 0L : newBid;
+            final long ask = (flags & HAS_ASK) == 0 ? 0L : newAsk;
+
+            lock.lock();
+            try {
+                if (hasRates &&
+                    !failed &&
+                    bid == lastBid &&
+                    ask == lastAsk &&
+                    flags == lastFlags) {
+                    // A new future each time, as callers can complete it
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                final byte[] bytes =
+                    new byte[2 * FixedPoint.MAX_FORMATTED_LENGTH + 1];
+                int length = formatRate(bid, flags & HAS_BID, bytes, 0);
+                bytes[length++] = FIELD_DELIMITER;
+                length = formatRate(ask, flags & HAS_ASK, bytes, length);
+
+                hasRates = true;
+                lastBid = bid;
+                lastAsk = ask;
+                lastFlags = flags;
+
+                return updateStream.set(dataType.readValue(bytes, 0, length))
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            onFailure();
+                        }
+                    });
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private int formatRate(
+            long rate,
+            int available,
+            byte[] bytes,
+            int offset) {
+
+            if (available == 0) {
+                bytes[offset] = EMPTY_FIELD;
+                return offset + 1;
+            }
+            return FixedPoint.formatTo(
+                rate,
+                FixedPoint.RATE_SCALE,
+                bytes,
+                offset);
+        }
+
+        private void onFailure() {
+            lock.lock();
+            try {
+                failed = true;
+            }
+            finally {
+                lock.unlock();
+            }
+            discard();
+        }
+
+        private void discard() {
+            final Map<String, RateStream> streams = rateStreams.get(currency);
+            if (streams != null) {
+                streams.remove(targetCurrency, this);
+            }
+        }
+    }
 }
@@ -18,16 +18,21 @@ import static com.pushtechnology.diffusion.client.Diffusion.newTopicSpecificatio
 import static com.pushtechnology.diffusion.datatype.DataTypes.INT64_DATATYPE_NAME;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.pushtechnology.diffusion.client.Diffusion;
 import com.pushtechnology.diffusion.client.features.TimeSeries;
+import com.pushtechnology.diffusion.client.features.TimeSeries.Event;
 import com.pushtechnology.diffusion.client.features.TimeSeries.EventMetadata;
+import com.pushtechnology.diffusion.client.features.TimeSeries.QueryResult;
 import com.pushtechnology.diffusion.client.features.TopicUpdate;
 import com.pushtechnology.diffusion.client.features.control.topics.TopicControl;
 import com.pushtechnology.diffusion.client.session.Session;
@@ -38,6 +43,9 @@ import com.pushtechnology.diffusion.client.topics.details.TopicType;
  * This example shows a control client creating a {@link TimeSeries} topic.
  * Values can be appended to the topic using {@link #appendValue(long)}, and
  * the last value of the topic can be edited using {@link #editLast(long)}.
+ * Many values can be appended without waiting for each append to complete
+ * using {@link #appendValues(Stream)}, and a range of values can be edited
+ * using {@link #editRange(long, long, LongUnaryOperator)}.
  * Alternatively, the methods provided by the {@link TopicUpdate} feature can be
  * used. See {@link TopicUpdateExample} for example usages of this API.
  *
@@ -49,12 +57,17 @@ import com.pushtechnology.diffusion.client.topics.details.TopicType;
 public class ControlClientUpdatingTimeSeriesTopics {
 
     private static final String TOPIC_PATH = "foo/timeseries";
+    private static final int MAX_APPENDS_IN_FLIGHT = 100;
+    private static final int APPEND_BATCH_SIZE = 10_000;
+    private static final int MAX_EDITS_IN_FLIGHT = 100;
+    private static final int EDIT_CHUNK_SIZE = 10_000;
     private static final Logger LOG =
         LoggerFactory.getLogger(ControlClientUpdatingTimeSeriesTopics.class);
 
     private final Session session;
     private final TimeSeries timeSeries;
     private final TopicControl topicControl;
+    private final PipelinedSender<TimestampedValue> appender;
 
     /**
      * Constructor.
@@ -70,6 +83,15 @@ public class ControlClientUpdatingTimeSeriesTopics {
         timeSeries = session.feature(TimeSeries.class);
         topicControl = session.feature(TopicControl.class);
 
+        appender = new PipelinedSender<>(
+            value -> timeSeries.append(
+                TOPIC_PATH,
+                Long.class,
+                value.getValue(),
+                value.getTimestamp()),
+            MAX_APPENDS_IN_FLIGHT,
+            APPEND_BATCH_SIZE);
+
         final TopicSpecification spec = newTopicSpecification(TopicType.TIME_SERIES)
             .withProperty(TopicSpecification.TIME_SERIES_EVENT_VALUE_TYPE, INT64_DATATYPE_NAME);
 
@@ -137,4 +159,149 @@ public class ControlClientUpdatingTimeSeriesTopics {
         throws IllegalArgumentException, InterruptedException, ExecutionException, TimeoutException {
         return timeSeries.append(TOPIC_PATH, Long.class, value, timestamp).get(5, TimeUnit.SECONDS);
     }
+
+    /**
+     * Appends a stream of values to the time series topic, each with a user
+     * supplied timestamp. This can be used for backfilling historic values.
+     * <P>
+     * Returns without waiting for the values to be appended. Up to 100
+     * appends are kept in flight, in the order of the stream, so throughput
+     * is not limited by the round trip time for each append. The throughput
+     * and failures of each batch of 10,000 appends are logged.
+     *
+     * @param values the values to append
+     * @return a future that completes with the number of values appended
+     *         when every append has completed
+     */
+    public CompletableFuture<Long> appendValues(Stream<TimestampedValue> values) {
+        return appender.sendAll(values);
+    }
+
+    /**
+     * Edit each value in a range of events by applying a function to it.
+     * This can be used to correct historic values.
+     * <P>
+     * The range is queried in chunks of 10,000 sequence numbers. The query
+     * for the next chunk is sent while the edits for the current chunk are
+     * in flight, so at most two chunks are held in memory. Up to 100 edits
+     * are kept in flight. The throughput and failures of the edits for each
+     * chunk are logged.
+     * <P>
+     * The range is first limited to the last event of the time series, so
+     * that a range with an open end, such as {@code Long.MAX_VALUE}, is not
+     * queried chunk by chunk beyond the end. Events appended after the edit
+     * starts are not edited.
+     *
+     * @param fromSequence the sequence number of the first event to edit
+     * @param toSequence the sequence number of the last event to edit
+     * @param transform the function to apply to each value
+     * @return a future that completes with the number of values edited
+     *         when every edit has completed
+     */
+    public CompletableFuture<Long> editRange(
+        long fromSequence,
+        long toSequence,
+        LongUnaryOperator transform) {
+
+        final PipelinedSender<Event<Long>> editor = new PipelinedSender<>(
+            event -> timeSeries.edit(
+                TOPIC_PATH,
+                event.originalEvent().sequence(),
+                Long.class,
+                transform.applyAsLong(event.value())),
+            MAX_EDITS_IN_FLIGHT,
+            EDIT_CHUNK_SIZE);
+
+        return timeSeries.rangeQuery()
+            .fromLast(1)
+            .as(Long.class)
+            .selectFrom(TOPIC_PATH)
+            .thenCompose(last -> {
+                final long lastSequence = last.stream()
+                    .mapToLong(Event::sequence)
+                    .max()
+                    .orElse(-1L);
+                final long to = Math.min(toSequence, lastSequence);
+
+                if (fromSequence > to) {
+                    return CompletableFuture.completedFuture(0L);
+                }
+
+                return editChunks(
+                    editor,
+                    fromSequence,
+                    to,
+                    queryChunk(fromSequence, to));
+            });
+    }
+
+    private CompletableFuture<Long> editChunks(
+        PipelinedSender<Event<Long>> editor,
+        long chunkStart,
+        long toSequence,
+        CompletableFuture<QueryResult<Long>> chunk) {
+
+        return chunk.thenCompose(result -> {
+            // Compare the distance to the end, as the start of a chunk
+            // after the last could overflow
+            if (toSequence - chunkStart < EDIT_CHUNK_SIZE) {
+                return editor.sendAll(result.stream());
+            }
+            final long nextChunkStart = chunkStart + EDIT_CHUNK_SIZE;
+
+            // Query the next chunk while editing this one
+            final CompletableFuture<QueryResult<Long>> nextChunk =
+                queryChunk(nextChunkStart, toSequence);
+
+            return editor.sendAll(result.stream())
+                .thenCompose(edited ->
+                    editChunks(editor, nextChunkStart, toSequence, nextChunk)
+                        .thenApply(remaining -> edited + remaining));
+        });
+    }
+
+    private CompletableFuture<QueryResult<Long>> queryChunk(
+        long chunkStart,
+        long toSequence) {
+
+        return timeSeries.rangeQuery()
+            .from(chunkStart)
+            .to(chunkStart +
+                Math.min(EDIT_CHUNK_SIZE - 1, toSequence - chunkStart))
+            .as(Long.class)
+            .selectFrom(TOPIC_PATH);
+    }
+
+    /**
+     * A value to append with its timestamp.
+     */
+    public static final class TimestampedValue {
+        private final long value;
+        private final Instant timestamp;
+
+        /**
+         * Constructor.
+         *
+         * @param value the value
+         * @param timestamp the timestamp
+         */
+        public TimestampedValue(long value, Instant timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * @return the value
+         */
+        public long getValue() {
+            return value;
+        }
+
+        /**
+         * @return the timestamp
+         */
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+    }
 }
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.pushtechnology.diffusion.examples;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.pushtechnology.diffusion.client.features.Topics.FetchRequest;
+import com.pushtechnology.diffusion.client.features.Topics.FetchResult;
+import com.pushtechnology.diffusion.client.features.Topics.FetchResult.TopicResult;
+
+/**
+ * Iterates over the results of a fetch request page by page, fetching pages
+ * in the background while earlier pages are consumed.
+ * <P>
+ * The first page is requested when the cursor is created. Each following
+ * page is requested as soon as the previous page arrives, until a bounded
+ * number of pages is buffered; fetching resumes as the consumer takes pages
+ * from the buffer. So at most the buffered pages and the page being consumed
+ * are held at a time. Failures, and pages that take longer than 5 seconds to
+ * arrive, are thrown from {@link #hasNext()} as a
+ * {@link CompletionException}, after the pages buffered before the failure.
+ * <P>
+ * A cursor is not thread-safe; it must be consumed by one thread at a time.
+ * Pages arrive on the threads of the session.
+ *
+ * @param <V> the value type of the results
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ClientUsingFetch
+ */
+final class FetchCursor<V> implements Iterator<TopicResult<V>> {
+
+    private static final long PAGE_TIMEOUT_NANOS = SECONDS.toNanos(5);
+
+    private final FetchRequest<V> request;
+    private final String selector;
+    private final int maxBufferedPages;
+    private final Lock lock = new ReentrantLock();
+    private final Condition pageArrived = lock.newCondition();
+
+    // Only used by the consumer
+    private Iterator<TopicResult<V>> page = Collections.emptyIterator();
+
+    // Guarded by lock
+    private final Deque<FetchResult<V>> pages = new ArrayDeque<>();
+    private boolean fetching;
+    private String resumeAfter;
+    private Throwable failure;
+
+    /**
+     * Constructor. Requests the first page. One page is buffered, so the
+     * next page is fetched while the current page is consumed.
+     *
+     * @param request the request, including any range bounds; the lower
+     *        bound is replaced after the first page
+     * @param selector the topic selector
+     * @param pageSize the maximum number of results in each page
+     */
+    FetchCursor(FetchRequest<V> request, String selector, int pageSize) {
+        this(request, selector, pageSize, 1);
+    }
+
+    /**
+     * Constructor. Requests the first page.
+     *
+     * @param request the request, including any range bounds; the lower
+     *        bound is replaced after the first page
+     * @param selector the topic selector
+     * @param pageSize the maximum number of results in each page
+     * @param maxBufferedPages the maximum number of pages fetched ahead of
+     *        the page being consumed
+     * @throws IllegalArgumentException if maxBufferedPages is not positive
+     */
+    FetchCursor(
+        FetchRequest<V> request,
+        String selector,
+        int pageSize,
+        int maxBufferedPages) {
+
+        if (maxBufferedPages <= 0) {
+            throw new IllegalArgumentException(
+                "maxBufferedPages must be positive");
+        }
+
+        this.request = request.first(pageSize);
+        this.selector = selector;
+        this.maxBufferedPages = maxBufferedPages;
+
+        lock.lock();
+        try {
+            fetch(this.request);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            lock.lock();
+            try {
+                if (!awaitPage()) {
+                    return false;
+                }
+                page = pages.poll().results().iterator();
+
+                // Make room for the following pages
+                fetchAhead();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wait for a page to be buffered. Called with the lock held.
+     *
+     * @return false if there are no more pages
+     */
+    private boolean awaitPage() {
+        long remaining = PAGE_TIMEOUT_NANOS;
+
+        while (pages.isEmpty()) {
+            if (failure != null) {
+                throw failure instanceof CompletionException ?
+                    (CompletionException) failure :
+                    new CompletionException(failure);
+            }
+            if (!fetching && resumeAfter == null) {
+                return false;
+            }
+            if (remaining <= 0) {
+                throw new CompletionException(
+                    new TimeoutException("Timed out waiting for a page"));
+            }
+
+            try {
+                remaining = pageArrived.awaitNanos(remaining);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Request the next page if there is one and there is room to buffer it.
+     * Called with the lock held.
+     */
+    private void fetchAhead() {
+        if (!fetching &&
+            failure == null &&
+            resumeAfter != null &&
+            pages.size() < maxBufferedPages) {
+
+            final String after = resumeAfter;
+            resumeAfter = null;
+            fetch(request.after(after));
+        }
+    }
+
+    /**
+     * Called with the lock held.
+     */
+    private void fetch(FetchRequest<V> pageRequest) {
+        fetching = true;
+        pageRequest.fetch(selector).whenComplete(this::onPage);
+    }
+
+    private void onPage(FetchResult<V> result, Throwable ex) {
+        lock.lock();
+        try {
+            fetching = false;
+
+            if (ex != null) {
+                failure = ex;
+            }
+            else {
+                pages.add(result);
+
+                final List<TopicResult<V>> results = result.results();
+                if (result.hasMore() && !results.isEmpty()) {
+                    resumeAfter = results.get(results.size() - 1).path();
+                    fetchAhead();
+                }
+            }
+
+            pageArrived.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TopicResult<V> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * @return the remaining results as a sequential stream
+     */
+    Stream<TopicResult<V>> stream() {
+        return toStream(this);
+    }
+
+    /**
+     * Concatenate the results of several cursors, in order, while fetching
+     * from a bounded number of them concurrently.
+     * <P>
+     * Creating a cursor starts its fetching, so the cursors are created
+     * lazily. The cursor being consumed and those that follow it, up to the
+     * concurrency limit, fetch pages in the background until their buffers
+     * are full. A cursor created with more than one buffered page therefore
+     * fetches several pages of its range ahead while it waits to be
+     * consumed.
+     *
+     * @param cursors creates each cursor
+     * @param concurrency the maximum number of cursors fetching at once
+     * @param <V> the value type of the results
+     * @return the results of all the cursors as a sequential stream
+     * @throws IllegalArgumentException if concurrency is not positive
+     */
+    static <V> Stream<TopicResult<V>> concat(
+        List<Supplier<FetchCursor<V>>> cursors,
+        int concurrency) {
+
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException(
+                "concurrency must be positive");
+        }
+
+        return toStream(new Iterator<TopicResult<V>>() {
+            private final Iterator<Supplier<FetchCursor<V>>> pending =
+                cursors.iterator();
+            private final Deque<FetchCursor<V>> started = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+                while (true) {
+                    while (started.size() < concurrency && pending.hasNext()) {
+                        started.add(pending.next().get());
+                    }
+                    if (started.isEmpty()) {
+                        return false;
+                    }
+                    if (started.peek().hasNext()) {
+                        return true;
+                    }
+                    started.poll();
+                }
+            }
+
+            @Override
+            public TopicResult<V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return started.peek().next();
+            }
+        });
+    }
+
+    private static <V> Stream<TopicResult<V>> toStream(
+        Iterator<TopicResult<V>> iterator) {
+
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL),
+            false);
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.pushtechnology.diffusion.client.features.Topics.FetchResult.TopicResult;
+import com.pushtechnology.diffusion.datatype.Bytes;
+
+/**
+ * Receives the results of a fetch one at a time, so that values can be
+ * written to their destination as they arrive instead of being collected
+ * on the heap.
+ * <P>
+ * Implementations should use {@link Bytes#copyTo(OutputStream)} to write a
+ * value, which copies its bytes directly to the stream, rather than
+ * {@link Bytes#toByteArray()}, which makes an intermediate copy.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ClientUsingFetch#fetchRange(String, String, int, FetchSink)
+ */
+@FunctionalInterface
+public interface FetchSink {
+
+    /**
+     * Receive a result.
+     *
+     * @param result the result; its value is null if the topic has no value
+     * @throws IOException if the result could not be written
+     */
+    void accept(TopicResult<Bytes> result) throws IOException;
+
+    /**
+     * Create a sink that writes each result to a stream as the topic path,
+     * in modified UTF-8 as written by {@link DataOutputStream#writeUTF}, a
+     * four byte value length, or -1 if there is no value, and the value
+     * bytes.
+     *
+     * @param out the stream
+     * @return the sink
+     */
+    static FetchSink writingTo(OutputStream out) {
+        final DataOutputStream data = new DataOutputStream(out);
+
+        return result -> {
+            data.writeUTF(result.path());
+
+            final Bytes value = result.value();
+            if (value == null) {
+                data.writeInt(-1);
+            }
+            else {
+                data.writeInt(value.length());
+                value.copyTo(data);
+            }
+        };
+    }
+}
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Operations on fixed-point decimals represented as scaled {@code long}
+ * values.
+ * <P>
+ * A decimal with scale {@code s} is held as its value multiplied by
+ * 10<sup>s</sup>, so 1.2345 with scale 5 is held as 123450. Parsing and
+ * formatting work directly on characters or bytes, without a
+ * {@link BigDecimal} or intermediate string.
+ * <P>
+ * Digits beyond the scale are rounded half up. Exponents are not supported.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class FixedPoint {
+
+    /**
+     * The scale of the FX rates in these examples, as declared by the
+     * {@code decimal("Bid", 5)} field of the rates schema.
+     */
+    public static final int RATE_SCALE = 5;
+
+    /**
+     * The largest supported scale.
+     */
+    public static final int MAX_SCALE = 18;
+
+    /**
+     * The maximum number of bytes written by
+     * {@link #formatTo(long, int, byte[], int) formatTo}: a sign, up to 19
+     * digits, a leading zero and a point.
+     */
+    public static final int MAX_FORMATTED_LENGTH = 22;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Parse a decimal.
+     *
+     * @param text the decimal, for example "-1.2345"
+     * @param scale the scale
+     * @return the scaled value
+     * @throws NumberFormatException if the text is not a decimal or is out
+     *         of range
+     */
+    public static long parse(CharSequence text, int scale) {
+        final Parser parser = new Parser(scale);
+        for (int i = 0; i < text.length(); i++) {
+            parser.accept(text.charAt(i));
+        }
+        return parser.value();
+    }
+
+    /**
+     * Parse a decimal from a range of characters.
+     *
+     * @param chars the characters
+     * @param offset the offset of the decimal
+     * @param length the length of the decimal
+     * @param scale the scale
+     * @return the scaled value
+     * @throws NumberFormatException if the characters are not a decimal or
+     *         are out of range
+     */
+    public static long parse(char[] chars, int offset, int length, int scale) {
+        final Parser parser = new Parser(scale);
+        for (int i = offset; i < offset + length; i++) {
+            parser.accept(chars[i]);
+        }
+        return parser.value();
+    }
+
+    /**
+     * Convert a {@link BigDecimal}.
+     *
+     * @param value the value
+     * @param scale the scale
+     * @return the scaled value
+     * @throws ArithmeticException if the value is out of range
+     */
+    public static long valueOf(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP)
+            .unscaledValue()
+            .longValueExact();
+    }
+
+    /**
+     * Convert to a {@link BigDecimal}.
+     *
+     * @param value the scaled value
+     * @param scale the scale
+     * @return the decimal
+     */
+    public static BigDecimal toBigDecimal(long value, int scale) {
+        return BigDecimal.valueOf(value, scale);
+    }
+
+    /**
+     * Format a decimal with exactly {@code scale} fraction digits.
+     *
+     * @param value the scaled value
+     * @param scale the scale
+     * @return the formatted decimal
+     */
+    public static String format(long value, int scale) {
+        final byte[] buffer = new byte[MAX_FORMATTED_LENGTH];
+        final int length = formatTo(value, scale, buffer, 0);
+        return new String(buffer, 0, length, US_ASCII);
+    }
+
+    /**
+     * Format a decimal with exactly {@code scale} fraction digits as ASCII
+     * bytes.
+     *
+     * @param value the scaled value
+     * @param scale the scale
+     * @param buffer the buffer to write to, which must have at least
+     *        {@link #MAX_FORMATTED_LENGTH} bytes from the offset
+     * @param offset the offset to write at
+     * @return the offset after the last byte written
+     */
+    public static int formatTo(
+        long value,
+        int scale,
+        byte[] buffer,
+        int offset) {
+        checkScale(scale);
+
+        // Format the digits backwards into the end of the space, working
+        // with a negative magnitude so that Long.MIN_VALUE is handled
+        final int end = offset + MAX_FORMATTED_LENGTH;
+        int position = end;
+        long remaining = value < 0 ? value : -value;
+        int digits = 0;
+
+        do {
+            if (digits == scale && scale > 0) {
+                buffer[--position] = '.';
+            }
+            buffer[--position] = (byte) ('0' - (remaining % 10));
+            remaining /= 10;
+            digits++;
+        }
+        while (remaining != 0 || digits <= scale);
+
+        if (value < 0) {
+            buffer[--position] = '-';
+        }
+
+        final int length = end - position;
+        System.arraycopy(buffer, position, buffer, offset, length);
+        return offset + length;
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Unsupported scale " + scale);
+        }
+    }
+
+    /**
+     * Parses a decimal one character at a time. A parser can be reset and
+     * reused, and is not thread-safe.
+     */
+    public static final class Parser {
+        private final int scale;
+        private long magnitude;
+        private int fractionDigits;
+        private boolean sign;
+        private boolean negative;
+        private boolean point;
+        private boolean digits;
+        private boolean beyondScale;
+        private boolean roundUp;
+        private boolean invalid;
+
+        /**
+         * Constructor.
+         *
+         * @param scale the scale
+         */
+        public Parser(int scale) {
+            checkScale(scale);
+            this.scale = scale;
+        }
+
+        /**
+         * Discard the characters accepted so far.
+         */
+        public void reset() {
+            magnitude = 0;
+            fractionDigits = 0;
+            sign = false;
+            negative = false;
+            point = false;
+            digits = false;
+            beyondScale = false;
+            roundUp = false;
+            invalid = false;
+        }
+
+        /**
+         * Accept the next character.
+         *
+         * @param c the character
+         */
+        public void accept(int c) {
+            if (c >= '0' && c <= '9') {
+                acceptDigit(c - '0');
+            }
+            else if (c == '.' && !point) {
+                point = true;
+            }
+            else if ((c == '-' || c == '+') && !digits && !point && !sign) {
+                sign = true;
+                negative = c == '-';
+            }
+            else {
+                invalid = true;
+            }
+        }
+
+        private void acceptDigit(int digit) {
+            digits = true;
+
+            if (point) {
+                if (fractionDigits == scale) {
+                    // Only the first digit beyond the scale is used
+                    if (!beyondScale) {
+                        beyondScale = true;
+                        roundUp = digit >= 5;
+                    }
+                    return;
+                }
+                fractionDigits++;
+            }
+
+            if (magnitude > (Long.MAX_VALUE - digit) / 10) {
+                invalid = true;
+                return;
+            }
+            magnitude = magnitude * 10 + digit;
+        }
+
+        /**
+         * @return the scaled value of the characters accepted
+         * @throws NumberFormatException if the characters are not a decimal
+         *         or are out of range
+         */
+        public long value() {
+            if (invalid || !digits) {
+                throw new NumberFormatException("Not a decimal");
+            }
+
+            final long multiplier = POWERS_OF_TEN[scale - fractionDigits];
+            if (magnitude > Long.MAX_VALUE / multiplier) {
+                throw new NumberFormatException("Decimal out of range");
+            }
+
+            long result = magnitude * multiplier;
+            if (roundUp) {
+                if (result == Long.MAX_VALUE) {
+                    throw new NumberFormatException("Decimal out of range");
+                }
+                result++;
+            }
+
+            return negative ? -result : result;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.pushtechnology.diffusion.examples;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.pushtechnology.diffusion.client.Diffusion;
+import com.pushtechnology.diffusion.datatype.json.JSON;
+import com.pushtechnology.diffusion.datatype.json.JSONDataType;
+
+/**
+ * Converts between Java objects and Diffusion {@link JSON} values using the
+ * third-party Jackson library.
+ * <P>
+ * Diffusion represents JSON values as CBOR. A codec binds a single Java type
+ * to a pre-built Jackson {@link ObjectWriter} and {@link ObjectReader}, so no
+ * serializer lookup or mapper configuration happens per value. Values are
+ * generated and parsed as a CBOR stream without an intermediate tree or map,
+ * and Jackson recycles its output buffers between calls on the same thread.
+ * <P>
+ * Codecs are immutable and thread-safe. Create one per type and share it.
+ *
+ * @param <T> the Java type
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class JSONCodec<T> {
+
+    private static final ObjectMapper CBOR_MAPPER =
+        new ObjectMapper(new CBORFactory());
+    private static final JSONDataType JSON_DATA_TYPE =
+        Diffusion.dataTypes().json();
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    private JSONCodec(ObjectWriter writer, ObjectReader reader) {
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    /**
+     * Create a codec for a class.
+     *
+     * @param type the class of the values
+     * @param <T> the Java type
+     * @return the codec
+     */
+    public static <T> JSONCodec<T> forType(Class<T> type) {
+        return new JSONCodec<>(
+            CBOR_MAPPER.writerFor(type),
+            CBOR_MAPPER.readerFor(type));
+    }
+
+    /**
+     * Create a codec for a generic type.
+     *
+     * @param type the type of the values
+     * @param <T> the Java type
+     * @return the codec
+     */
+    public static <T> JSONCodec<T> forType(TypeReference<T> type) {
+        return new JSONCodec<>(
+            CBOR_MAPPER.writerFor(type),
+            CBOR_MAPPER.readerFor(type));
+    }
+
+    /**
+     * Convert a Java object to a JSON value.
+     *
+     * @param value the Java object
+     * @return the JSON value
+     * @throws JsonProcessingException if the object could not be serialized
+     */
+    public JSON toJSON(T value) throws JsonProcessingException {
+        return JSON_DATA_TYPE.readValue(writer.writeValueAsBytes(value));
+    }
+
+    /**
+     * Convert a JSON value to a Java object.
+     *
+     * @param value the JSON value
+     * @return the Java object
+     * @throws IOException if the value could not be parsed as the type
+     */
+    public T fromJSON(JSON value) throws IOException {
+        return reader.readValue(value.asInputStream());
+    }
+
+    /**
+     * Create a streaming parser for a JSON value, for reading values without
+     * binding them to Java objects.
+     *
+     * @param value the JSON value
+     * @return the parser, which the caller should close
+     * @throws IOException if the parser could not be created
+     */
+    public static JsonParser parser(JSON value) throws IOException {
+        return CBOR_MAPPER.getFactory().createParser(value.asInputStream());
+    }
+}
@@ -0,0 +1,433 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends a stream of requests, keeping a window of requests in flight instead
+ * of waiting for each request to complete before sending the next.
+ * <P>
+ * Requests are sent in the order of the stream. The stream is consumed as
+ * earlier requests complete, from the threads that complete them, so the
+ * caller is not blocked and the stream does not have to be held in memory.
+ * The stream must not block: it is pulled on threads that deliver
+ * completions, such as the threads of a Diffusion session, and a slow source
+ * delays the other work of those threads. A sender that throws is counted
+ * as a failed request.
+ * <P>
+ * Requests are grouped into batches. When every request in a batch has
+ * completed, a {@link BatchReport} with the throughput and the number of
+ * failures of the batch is passed to a listener. A failed request does not
+ * prevent later requests from being sent.
+ * <P>
+ * This class is thread-safe.
+ *
+ * @param <T> the request type
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class PipelinedSender<T> {
+
+    private static final Logger LOG =
+        LoggerFactory.getLogger(PipelinedSender.class);
+
+    private final Function<T, CompletableFuture<?>> sender;
+    private final int maxInFlight;
+    private final int batchSize;
+    private final Consumer<BatchReport> batchListener;
+
+    /**
+     * Constructor.
+     *
+     * @param sender sends a request, returning a future that completes when
+     *        the server has processed it
+     * @param maxInFlight the maximum number of requests in flight
+     * @param batchSize the number of requests in each batch
+     * @param batchListener called when each batch has completed
+     */
+    public PipelinedSender(
+        Function<T, CompletableFuture<?>> sender,
+        int maxInFlight,
+        int batchSize,
+        Consumer<BatchReport> batchListener) {
+
+        if (maxInFlight <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException(
+                "maxInFlight and batchSize must be positive");
+        }
+        this.sender = requireNonNull(sender);
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+        this.batchListener = requireNonNull(batchListener);
+    }
+
+    /**
+     * Constructor for a sender that logs each batch report.
+     *
+     * @param sender sends a request, returning a future that completes when
+     *        the server has processed it
+     * @param maxInFlight the maximum number of requests in flight
+     * @param batchSize the number of requests in each batch
+     */
+    public PipelinedSender(
+        Function<T, CompletableFuture<?>> sender,
+        int maxInFlight,
+        int batchSize) {
+
+        this(sender, maxInFlight, batchSize, report -> LOG.info("{}", report));
+    }
+
+    /**
+     * Send each request in a stream. Returns without waiting for the
+     * requests to be sent.
+     *
+     * @param requests the requests
+     * @return a future that completes with the number of successful
+     *         requests when every request has completed, or completes
+     *         exceptionally if the stream fails
+     */
+    public CompletableFuture<Long> sendAll(Stream<T> requests) {
+        final Run run = new Run(requests.iterator());
+        run.pump();
+        return run.result;
+    }
+
+    /**
+     * The state of a single call to {@link #sendAll(Stream)}.
+     */
+    private final class Run {
+        private final Iterator<T> requests;
+        private final CompletableFuture<Long> result =
+            new CompletableFuture<>();
+        private final Lock lock = new ReentrantLock();
+
+        // Guarded by lock
+        private boolean pumping;
+        private boolean exhausted;
+        private Throwable streamFailure;
+        private int inFlight;
+        private long succeeded;
+        private long batchNumber;
+        private Batch batch;
+
+        Run(Iterator<T> requests) {
+            this.requests = requests;
+        }
+
+        /**
+         * Send requests until the window is full or the stream is
+         * exhausted. Only one thread pumps at a time. A request that
+         * completes while another thread is pumping, possibly on that
+         * thread, does not send further requests itself but leaves them to
+         * the loop already running. The stream and the sender are called
+         * without holding the lock, so other completions are not held up.
+         */
+        void pump() {
+            lock.lock();
+            try {
+                if (pumping || exhausted) {
+                    return;
+                }
+                pumping = true;
+            }
+            finally {
+                lock.unlock();
+            }
+
+            while (true) {
+                lock.lock();
+                try {
+                    if (inFlight >= maxInFlight) {
+                        // A completion after this will pump again
+                        pumping = false;
+                        return;
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
+
+                final T request;
+                try {
+                    if (!requests.hasNext()) {
+                        finish(null);
+                        return;
+                    }
+                    request = requests.next();
+                }
+                // CHECKSTYLE.OFF: IllegalCatch
+                catch (RuntimeException e) {
+                    // CHECKSTYLE.ON: IllegalCatch
+                    finish(e);
+                    return;
+                }
+
+                send(request);
+            }
+        }
+
+        /**
+         * Mark the stream as exhausted and close the open batch.
+         *
+         * @param failure the exception thrown by the stream, or null
+         */
+        private void finish(Throwable failure) {
+            Batch lastBatch = null;
+
+            lock.lock();
+            try {
+                exhausted = true;
+                streamFailure = failure;
+                pumping = false;
+
+                if (batch != null) {
+                    lastBatch = batch;
+                    batch = null;
+                    lastBatch.closed = true;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+
+            checkComplete(lastBatch);
+        }
+
+        private void send(T request) {
+            final Batch requestBatch;
+
+            lock.lock();
+            try {
+                if (batch == null) {
+                    batch = new Batch(++batchNumber);
+                }
+
+                requestBatch = batch;
+                requestBatch.sent++;
+                if (requestBatch.sent == batchSize) {
+                    requestBatch.closed = true;
+                    batch = null;
+                }
+                inFlight++;
+            }
+            finally {
+                lock.unlock();
+            }
+
+            CompletableFuture<?> future;
+            try {
+                future = sender.apply(request);
+            }
+            // CHECKSTYLE.OFF: IllegalCatch
+            catch (RuntimeException e) {
+                // CHECKSTYLE.ON: IllegalCatch
+                // Count it as a failed request, so that it completes
+                final CompletableFuture<?> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                future = failed;
+            }
+
+            future.whenComplete((r, ex) -> onComplete(requestBatch, ex));
+        }
+
+        private void onComplete(Batch requestBatch, Throwable ex) {
+            lock.lock();
+            try {
+                inFlight--;
+                requestBatch.completed++;
+                if (ex == null) {
+                    succeeded++;
+                }
+                else if (requestBatch.failures++ == 0) {
+                    requestBatch.firstFailure = ex;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+
+            checkComplete(requestBatch);
+            pump();
+        }
+
+        /**
+         * Report the batch, if not null and it has completed, and complete
+         * the result if every request has completed.
+         */
+        private void checkComplete(Batch completedBatch) {
+            BatchReport report = null;
+            boolean done = false;
+            long total = 0;
+            Throwable failure = null;
+
+            lock.lock();
+            try {
+                if (completedBatch != null &&
+                    completedBatch.closed &&
+                    !completedBatch.reported &&
+                    completedBatch.completed == completedBatch.sent) {
+
+                    completedBatch.reported = true;
+                    report = completedBatch.report();
+                }
+
+                if (exhausted && inFlight == 0 && !result.isDone()) {
+                    done = true;
+                    total = succeeded;
+                    failure = streamFailure;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+
+            if (report != null) {
+                batchListener.accept(report);
+            }
+
+            if (done) {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                }
+                else {
+                    result.complete(total);
+                }
+            }
+        }
+    }
+
+    /**
+     * The progress of a batch. Guarded by the lock of its {@link Run}.
+     */
+    private static final class Batch {
+        private final long number;
+        private final long startNanos = System.nanoTime();
+        private int sent;
+        private int completed;
+        private int failures;
+        private Throwable firstFailure;
+        private boolean closed;
+        private boolean reported;
+
+        Batch(long number) {
+            this.number = number;
+        }
+
+        BatchReport report() {
+            return new BatchReport(
+                number,
+                sent,
+                failures,
+                firstFailure,
+                System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * The outcome of a completed batch of requests.
+     */
+    public static final class BatchReport {
+        private final long batch;
+        private final int count;
+        private final int failures;
+        private final Throwable firstFailure;
+        private final long elapsedNanos;
+
+        BatchReport(
+            long batch,
+            int count,
+            int failures,
+            Throwable firstFailure,
+            long elapsedNanos) {
+
+            this.batch = batch;
+            this.count = count;
+            this.failures = failures;
+            this.firstFailure = firstFailure;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return the number of the batch, starting at 1
+         */
+        public long getBatch() {
+            return batch;
+        }
+
+        /**
+         * @return the number of requests in the batch
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return the number of requests that failed
+         */
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return the exception of the first request that failed, or null
+         */
+        public Throwable getFirstFailure() {
+            return firstFailure;
+        }
+
+        /**
+         * @return the time from sending the first request of the batch to
+         *         the completion of the last
+         */
+        public long getElapsed(TimeUnit unit) {
+            return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @return the number of requests completed per second
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ?
+                0 :
+                count * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Batch %d: %d requests in %d ms, %.0f/s, %d failed%s",
+                batch,
+                count,
+                getElapsed(TimeUnit.MILLISECONDS),
+                getThroughput(),
+                failures,
+                firstFailure == null ? "" : ", first failure " + firstFailure);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * A flat, lock-free table of bid and ask rates keyed by currency pair.
+ * <P>
+ * Each currency pair is interned to a pair ID, which is its slot in an
+ * open-addressed table. A slot is claimed with a single compare and set, so
+ * concurrent updates of a new pair agree on its ID. Pair IDs are never
+ * reused, so they can be cached. Removing a pair's rates leaves its slot
+ * claimed. The table has a fixed capacity.
+ * <P>
+ * Either rate of a pair can be absent, which is recorded by the flags
+ * {@link #HAS_BID} and {@link #HAS_ASK}.
+ * <P>
+ * The rates of each pair are guarded by a sequence lock. A writer makes the
+ * version of the slot odd while it writes, and a reader retries if the
+ * version was odd or changed while it read. Readers never block writers or
+ * see a bid from one update with an ask from another. The slots are spaced a
+ * cache line apart, so that updates to different pairs rarely contend. The
+ * array holding them is not aligned to a cache line, so neighbouring slots
+ * can still share one.
+ * <P>
+ * This class is thread-safe.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ClientConsumingRecordV2Topics
+ */
+final class RatesTable {
+
+    /** The flag of a pair with a bid rate. */
+    static final int HAS_BID = 1;
+
+    /** The flag of a pair with an ask rate. */
+    static final int HAS_ASK = 2;
+
+    /** The number of longs per slot, spacing the slots 64 bytes apart. */
+    private static final int STRIDE = 8;
+
+    private static final int VERSION = 0;
+    private static final int BID = 1;
+    private static final int ASK = 2;
+    private static final int PRESENT = 3;
+    private static final int FLAGS = 4;
+
+    private final AtomicReferenceArray<Pair> pairs;
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of currency pairs, which must be a
+     *        power of two
+     */
+    RatesTable(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                "Capacity must be a power of two: " + capacity);
+        }
+        pairs = new AtomicReferenceArray<>(capacity);
+        slots = new AtomicLongArray(capacity * STRIDE);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Find or claim the ID of a currency pair.
+     *
+     * @param currency the base currency
+     * @param targetCurrency the target currency
+     * @return the pair ID
+     * @throws IllegalStateException if the table is full
+     */
+    int pairId(String currency, String targetCurrency) {
+        final int hash = hash(currency, targetCurrency);
+
+        for (int i = 0; i <= mask; i++) {
+            final int id = (hash + i) & mask;
+            Pair pair = pairs.get(id);
+
+            if (pair == null) {
+                final Pair newPair = new Pair(currency, targetCurrency);
+                if (pairs.compareAndSet(id, null, newPair)) {
+                    return id;
+                }
+                pair = pairs.get(id);
+            }
+
+            if (pair.matches(currency, targetCurrency)) {
+                return id;
+            }
+        }
+
+        throw new IllegalStateException("Rates table is full");
+    }
+
+    /**
+     * Find the ID of a currency pair.
+     *
+     * @param currency the base currency
+     * @param targetCurrency the target currency
+     * @return the pair ID, or -1 if the pair has never had rates
+     */
+    int findPairId(String currency, String targetCurrency) {
+        final int hash = hash(currency, targetCurrency);
+
+        for (int i = 0; i <= mask; i++) {
+            final int id = (hash + i) & mask;
+            final Pair pair = pairs.get(id);
+
+            if (pair == null) {
+                return -1;
+            }
+            if (pair.matches(currency, targetCurrency)) {
+                return id;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param pairId the pair ID
+     * @return the base currency of the pair
+     */
+    String currency(int pairId) {
+        return pairs.get(pairId).currency;
+    }
+
+    /**
+     * @param pairId the pair ID
+     * @return the target currency of the pair
+     */
+    String targetCurrency(int pairId) {
+        return pairs.get(pairId).targetCurrency;
+    }
+
+    /**
+     * Set the rates of a pair.
+     *
+     * @param pairId the pair ID
+     * @param bid the scaled bid rate
+     * @param ask the scaled ask rate
+     * @param flags {@link #HAS_BID} and {@link #HAS_ASK} if the rates are
+     *        present
+     * @param previous if not null, receives the previous bid and ask rates
+     *        and flags
+     * @return true if the pair had rates
+     */
+    boolean set(int pairId, long bid, long ask, int flags, long[] previous) {
+        final int slot = pairId * STRIDE;
+        final long version = beginWrite(slot);
+
+        final boolean present = slots.get(slot + PRESENT) != 0;
+        if (present && previous != null) {
+            previous[0] = slots.get(slot + BID);
+            previous[1] = slots.get(slot + ASK);
+            previous[2] = slots.get(slot + FLAGS);
+        }
+
+        slots.set(slot + BID, bid);
+        slots.set(slot + ASK, ask);
+        slots.set(slot + FLAGS, flags);
+        slots.set(slot + PRESENT, 1);
+        slots.set(slot + VERSION, version + 2);
+
+        return present;
+    }
+
+    /**
+     * Remove the rates of a pair.
+     *
+     * @param pairId the pair ID
+     * @return true if the pair had rates
+     */
+    boolean remove(int pairId) {
+        final int slot = pairId * STRIDE;
+        final long version = beginWrite(slot);
+
+        final boolean present = slots.get(slot + PRESENT) != 0;
+        slots.set(slot + PRESENT, 0);
+        slots.set(slot + VERSION, version + 2);
+
+        return present;
+    }
+
+    /**
+     * Read the rates of a pair.
+     *
+     * @param pairId the pair ID
+     * @param rates receives the bid and ask rates and flags
+     * @return true if the pair has rates
+     */
+    boolean get(int pairId, long[] rates) {
+        final int slot = pairId * STRIDE;
+
+        while (true) {
+            final long version = slots.get(slot + VERSION);
+            if ((version & 1) != 0) {
+                // A write is in progress
+                Thread.onSpinWait();
+                continue;
+            }
+
+            final boolean present = slots.get(slot + PRESENT) != 0;
+            final long bid = slots.get(slot + BID);
+            final long ask = slots.get(slot + ASK);
+            final long flags = slots.get(slot + FLAGS);
+
+            if (slots.get(slot + VERSION) == version) {
+                if (present) {
+                    rates[0] = bid;
+                    rates[1] = ask;
+                    rates[2] = flags;
+                }
+                return present;
+            }
+        }
+    }
+
+    /**
+     * Pass the ID of each pair with a base currency to a consumer.
+     *
+     * @param currency the base currency
+     * @param consumer the consumer
+     */
+    void forEachPair(String currency, IntConsumer consumer) {
+        for (int id = 0; id <= mask; id++) {
+            final Pair pair = pairs.get(id);
+            if (pair != null && pair.currency.equals(currency)) {
+                consumer.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Pass the ID of every pair to a consumer.
+     *
+     * @param consumer the consumer
+     */
+    void forEachPair(IntConsumer consumer) {
+        for (int id = 0; id <= mask; id++) {
+            if (pairs.get(id) != null) {
+                consumer.accept(id);
+            }
+        }
+    }
+
+    private long beginWrite(int slot) {
+        while (true) {
+            final long version = slots.get(slot + VERSION);
+            if ((version & 1) == 0 &&
+                slots.compareAndSet(slot + VERSION, version, version + 1)) {
+                return version;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static int hash(String currency, String targetCurrency) {
+        final int h = currency.hashCode() * 31 + targetCurrency.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A currency pair.
+     */
+    private static final class Pair {
+        private final String currency;
+        private final String targetCurrency;
+
+        Pair(String currency, String targetCurrency) {
+            this.currency = currency;
+            this.targetCurrency = targetCurrency;
+        }
+
+        boolean matches(String otherCurrency, String otherTargetCurrency) {
+            return currency.equals(otherCurrency) &&
+                targetCurrency.equals(otherTargetCurrency);
+        }
+    }
+}
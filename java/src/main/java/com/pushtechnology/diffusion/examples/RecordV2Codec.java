@@ -0,0 +1,1032 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.pushtechnology.diffusion.client.Diffusion;
+import com.pushtechnology.diffusion.datatype.recordv2.RecordV2;
+import com.pushtechnology.diffusion.datatype.recordv2.RecordV2DataType;
+import com.pushtechnology.diffusion.datatype.recordv2.schema.Schema;
+import com.pushtechnology.diffusion.datatype.recordv2.schema.SchemaBuilder;
+
+/**
+ * Encodes and decodes RecordV2 values as annotated Java objects, deriving the
+ * {@link Schema} of the values from the class of the objects.
+ * <P>
+ * The fields of a class annotated with {@link Record} map to the fields of a
+ * single record. Each {@link Field} annotation gives the position of the
+ * field in the record, and optionally its name, multiplicity and scale. A
+ * Java field of type {@code String}, {@code int}, {@code long} or
+ * {@link BigDecimal} maps to a field that occurs once. A {@code long} with a
+ * scale holds a decimal as a {@link FixedPoint} value. A field that may occur
+ * more than once is mapped from an array of one of these types.
+ * <P>
+ * A null {@code String} or {@code BigDecimal} is encoded as an empty field.
+ * An empty field is decoded as a null {@code BigDecimal} and as an empty
+ * {@code String}. An {@code int} or {@code long} cannot be empty, so decoding
+ * an empty field into one fails.
+ * <P>
+ * A class that is not annotated with {@code Record} maps to a value with
+ * several records instead. Each of its {@code Field} annotations marks a Java
+ * field holding a record, or an array of records, of a class annotated with
+ * {@code Record}. For example, the "name and address" schema of
+ * {@link ClientCreatingRecordV2Schema} can be derived from
+ * {@link ClientCreatingRecordV2Schema.NameAndAddress}.
+ * <P>
+ * The class is inspected once, when the codec is created. Encoding writes the
+ * RecordV2 format directly from the fields of an object, and decoding parses
+ * it directly into the fields of an object, without the strings, maps and
+ * lookups by name of a {@code MutableRecordModel}. Decoding into an existing
+ * object reuses it, its records and its arrays where their sizes are
+ * unchanged, so only strings and {@code BigDecimal} fields are allocated.
+ * Numeric fields are parsed and formatted without allocation.
+ * <P>
+ * As required by RecordV2 schemas, only the last record of a value and the
+ * last field of a record may have a variable number of occurrences.
+ * <P>
+ * This class is thread-safe, but the objects it encodes and decodes are not
+ * protected from concurrent modification.
+ *
+ * @param <T> the type of the objects
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ClientCreatingRecordV2Schema
+ */
+public final class RecordV2Codec<T> {
+
+    /** The delimiter between records. */
+    private static final byte RECORD_DELIMITER = 0x01;
+
+    /** The delimiter between fields. */
+    private static final byte FIELD_DELIMITER = 0x02;
+
+    /** The encoding of an empty field. */
+    private static final byte EMPTY_FIELD = 0x03;
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private static final ThreadLocal<Buffer> BUFFERS =
+        ThreadLocal.withInitial(Buffer::new);
+
+    private final RecordV2DataType dataType;
+    private final Constructor<T> constructor;
+    private final RecordBinding[] records;
+    private final Schema schema;
+
+    private RecordV2Codec(
+        RecordV2DataType dataType,
+        Constructor<T> constructor,
+        RecordBinding[] records) {
+
+        this.dataType = dataType;
+        this.constructor = constructor;
+        this.records = records;
+
+        SchemaBuilder builder = dataType.schemaBuilder();
+        for (RecordBinding record : records) {
+            builder = record.addTo(builder);
+        }
+        schema = builder.build();
+    }
+
+    /**
+     * Create a codec for a class.
+     *
+     * @param type the class, which must have a no-argument constructor
+     * @param <T> the type of the objects
+     * @return the codec
+     * @throws IllegalArgumentException if the class is not annotated as
+     *         described above, or a field has an unsupported type
+     */
+    public static <T> RecordV2Codec<T> forClass(Class<T> type) {
+        final Constructor<T> constructor = constructorOf(type);
+
+        final RecordBinding[] records;
+        if (type.isAnnotationPresent(Record.class)) {
+            records = new RecordBinding[] {
+                new RecordBinding(null, recordName(type, ""), type, 1, 1),
+            };
+        }
+        else {
+            final List<java.lang.reflect.Field> fields = annotatedFields(type);
+            if (fields.isEmpty()) {
+                throw new IllegalArgumentException(
+                    type + " has no annotated fields");
+            }
+
+            records = new RecordBinding[fields.size()];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = recordBinding(fields.get(i));
+            }
+            checkVariableLast(records);
+        }
+
+        return new RecordV2Codec<>(
+            Diffusion.dataTypes().recordV2(),
+            constructor,
+            records);
+    }
+
+    /**
+     * @return the schema derived from the class
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Encode an object.
+     *
+     * @param value the object
+     * @return the RecordV2 value
+     * @throws IllegalArgumentException if an array, record or decimal in the
+     *         object does not fit the schema
+     */
+    public RecordV2 encode(T value) {
+        final Buffer buffer = BUFFERS.get();
+        buffer.length = 0;
+
+        try {
+            boolean first = true;
+            for (RecordBinding record : records) {
+                final Object holder = record.get(value);
+                final int count = record.count(holder);
+                for (int i = 0; i < count; i++) {
+                    if (!first) {
+                        buffer.put(RECORD_DELIMITER);
+                    }
+                    first = false;
+                    record.encode(record.element(holder, i), buffer);
+                }
+            }
+        }
+        catch (ReflectiveOperationException e) {
+            // The fields were made accessible when the codec was created
+            throw new IllegalStateException(e);
+        }
+
+        // The data type may keep a reference to the bytes it reads, so they
+        // are copied out of the reusable buffer
+        final byte[] bytes = Arrays.copyOf(buffer.bytes, buffer.length);
+        return dataType.readValue(bytes);
+    }
+
+    /**
+     * Decode a value into a new object.
+     *
+     * @param value the RecordV2 value
+     * @return the object
+     * @throws IllegalArgumentException if the value does not match the schema,
+     *         or a field mapped to an {@code int} or {@code long} is empty
+     */
+    public T decode(RecordV2 value) {
+        try {
+            return decode(value, constructor.newInstance());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decode a value into an existing object, replacing the values of its
+     * fields.
+     *
+     * @param value the RecordV2 value
+     * @param target the object
+     * @return the target
+     * @throws IllegalArgumentException if the value does not match the schema,
+     *         or a field mapped to an {@code int} or {@code long} is empty
+     */
+    public T decode(RecordV2 value, T target) {
+        final Buffer buffer = BUFFERS.get();
+        buffer.length = 0;
+
+        try {
+            value.copyTo(buffer);
+        }
+        catch (IOException e) {
+            // The buffer never throws
+            throw new IllegalStateException(e);
+        }
+
+        final byte[] bytes = buffer.bytes;
+        final int length = buffer.length;
+        // An empty value is a single empty record if the schema requires
+        // one, as that is how a record with only empty fields is encoded
+        final int recordCount = length == 0 ?
+            records.length > 0 && records[0].min >= 1 ? 1 : 0 :
+            count(bytes, 0, length, RECORD_DELIMITER) + 1;
+
+        try {
+            int start = 0;
+            int remaining = recordCount;
+            for (int r = 0; r < records.length; r++) {
+                final RecordBinding record = records[r];
+                final int count = occurrences(
+                    record.min,
+                    record.max,
+                    r == records.length - 1,
+                    remaining,
+                    record.name);
+                remaining -= count;
+
+                final Object holder = record.prepare(target, count);
+                for (int i = 0; i < count; i++) {
+                    final int end =
+                        indexOf(bytes, start, length, RECORD_DELIMITER);
+                    record.decode(
+                        record.element(holder, i), buffer, start, end);
+                    start = end + 1;
+                }
+            }
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return target;
+    }
+
+    /**
+     * Allocate the occurrences in a value or record to a record or field. All
+     * but the last have a fixed number of occurrences.
+     */
+    private static int occurrences(
+        int min,
+        int max,
+        boolean last,
+        int remaining,
+        String name) {
+
+        final int count = last ? remaining : min;
+        if (count < min || max != -1 && count > max || count > remaining) {
+            throw new IllegalArgumentException(
+                "Value does not match schema at " + name);
+        }
+        return count;
+    }
+
+    private static void checkOccurrences(
+        int count,
+        int min,
+        int max,
+        String name) {
+
+        if (count < min || max != -1 && count > max) {
+            throw new IllegalArgumentException(
+                name + " occurs " + count + " times, schema allows " +
+                min + ".." + max);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, int start, int end, byte b) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int count(byte[] bytes, int start, int end, byte b) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == b) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static <T> Constructor<T> constructorOf(Class<T> type) {
+        try {
+            final Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                type + " has no no-argument constructor", e);
+        }
+    }
+
+    private static String recordName(Class<?> type, String name) {
+        if (!name.isEmpty()) {
+            return name;
+        }
+        final String recordName = type.getAnnotation(Record.class).value();
+        return recordName.isEmpty() ? type.getSimpleName() : recordName;
+    }
+
+    /**
+     * @return the annotated fields of a class, in order of position
+     */
+    private static List<java.lang.reflect.Field> annotatedFields(
+        Class<?> type) {
+
+        final List<java.lang.reflect.Field> fields = new ArrayList<>();
+        for (java.lang.reflect.Field field : type.getDeclaredFields()) {
+            if (!field.isAnnotationPresent(Field.class)) {
+                continue;
+            }
+            final int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                throw new IllegalArgumentException(
+                    field + " must not be static or final");
+            }
+            field.setAccessible(true);
+            fields.add(field);
+        }
+
+        fields.sort(Comparator.comparingInt(RecordV2Codec::position));
+
+        for (int i = 1; i < fields.size(); i++) {
+            if (position(fields.get(i)) == position(fields.get(i - 1))) {
+                throw new IllegalArgumentException(
+                    fields.get(i) + " has the same position as " +
+                    fields.get(i - 1));
+            }
+        }
+        return fields;
+    }
+
+    private static int position(java.lang.reflect.Field field) {
+        return field.getAnnotation(Field.class).value();
+    }
+
+    private static int maxOf(Field annotation) {
+        return annotation.max() == 0 ? annotation.min() : annotation.max();
+    }
+
+    private static boolean isSingle(int min, int max) {
+        return min == 1 && max == 1;
+    }
+
+    private static RecordBinding recordBinding(java.lang.reflect.Field field) {
+        final Field annotation = field.getAnnotation(Field.class);
+        final int min = annotation.min();
+        final int max = maxOf(annotation);
+        final boolean single = isSingle(min, max);
+
+        final Class<?> type =
+            single ? field.getType() : field.getType().getComponentType();
+        if (type == null || !type.isAnnotationPresent(Record.class)) {
+            throw new IllegalArgumentException(
+                field + " must be " + (single ? "" : "an array of ") +
+                "a class annotated with @Record");
+        }
+        if (annotation.scale() != 0) {
+            throw new IllegalArgumentException(
+                field + " is a record and cannot have a scale");
+        }
+
+        return new RecordBinding(
+            field,
+            recordName(type, annotation.name()),
+            type,
+            min,
+            max);
+    }
+
+    private static void checkVariableLast(Occurs[] bindings) {
+        for (int i = 0; i < bindings.length - 1; i++) {
+            final Occurs occurs = bindings[i];
+            if (occurs.min() != occurs.max()) {
+                throw new IllegalArgumentException(
+                    occurs.name() + " has a variable number of occurrences " +
+                    "but is not last");
+            }
+        }
+    }
+
+    /**
+     * Marks a class whose fields map to the fields of a record.
+     */
+    @Retention(RUNTIME)
+    @Target(TYPE)
+    public @interface Record {
+        /**
+         * @return the name of the record, or empty for the simple name of
+         *         the class
+         */
+        String value() default "";
+    }
+
+    /**
+     * Marks a Java field that maps to a field of a record, or to a record of
+     * a value.
+     */
+    @Retention(RUNTIME)
+    @Target(FIELD)
+    public @interface Field {
+        /**
+         * @return the position of the field, relative to the other
+         *         annotated fields of the class
+         */
+        int value();
+
+        /**
+         * @return the name in the schema, or empty for the name of the Java
+         *         field or, for a record, of its class
+         */
+        String name() default "";
+
+        /**
+         * @return the minimum number of occurrences
+         */
+        int min() default 1;
+
+        /**
+         * @return the maximum number of occurrences, -1 for unlimited, or 0
+         *         for the minimum
+         */
+        int max() default 0;
+
+        /**
+         * @return the scale of a decimal field, or 0 for an integer field
+         */
+        int scale() default 0;
+    }
+
+    /**
+     * The multiplicity of a record or field binding.
+     */
+    private interface Occurs {
+        String name();
+
+        int min();
+
+        int max();
+    }
+
+    /**
+     * Binds a record of the schema to a Java field holding a record object or
+     * an array of record objects, or to the object itself for a single record.
+     */
+    private static final class RecordBinding implements Occurs {
+        private final java.lang.reflect.Field field;
+        private final String name;
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private final int min;
+        private final int max;
+        private final boolean array;
+        private final FieldBinding[] fields;
+
+        RecordBinding(
+            java.lang.reflect.Field field,
+            String name,
+            Class<?> type,
+            int min,
+            int max) {
+
+            this.field = field;
+            this.name = name;
+            this.type = type;
+            this.min = min;
+            this.max = max;
+            array = !isSingle(min, max);
+            constructor = field == null ? null : constructorOf(type);
+
+            final List<java.lang.reflect.Field> javaFields =
+                annotatedFields(type);
+            if (javaFields.isEmpty()) {
+                throw new IllegalArgumentException(
+                    type + " has no annotated fields");
+            }
+            fields = new FieldBinding[javaFields.size()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = new FieldBinding(javaFields.get(i));
+            }
+            checkVariableLast(fields);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int min() {
+            return min;
+        }
+
+        @Override
+        public int max() {
+            return max;
+        }
+
+        SchemaBuilder addTo(SchemaBuilder builder) {
+            SchemaBuilder result = builder.record(name, min, max);
+            for (FieldBinding binding : fields) {
+                result = binding.addTo(result);
+            }
+            return result;
+        }
+
+        Object get(Object value) throws IllegalAccessException {
+            return field == null ? value : field.get(value);
+        }
+
+        int count(Object holder) {
+            if (holder == null) {
+                throw new IllegalArgumentException(
+                    "Record " + name + " is null");
+            }
+            if (!array) {
+                return 1;
+            }
+            final int count = Array.getLength(holder);
+            checkOccurrences(count, min, max, name);
+            return count;
+        }
+
+        Object element(Object holder, int index) {
+            if (!array) {
+                return holder;
+            }
+            final Object element = Array.get(holder, index);
+            if (element == null) {
+                throw new IllegalArgumentException(
+                    "Record " + name + "[" + index + "] is null");
+            }
+            return element;
+        }
+
+        /**
+         * Ensure the target holds a record object, or an array of record
+         * objects of the given length, reusing those it already has.
+         *
+         * @return the record object or array
+         */
+        Object prepare(Object target, int count)
+            throws ReflectiveOperationException {
+
+            if (field == null) {
+                return target;
+            }
+
+            final Object current = field.get(target);
+            if (!array) {
+                if (current != null) {
+                    return current;
+                }
+                final Object record = constructor.newInstance();
+                field.set(target, record);
+                return record;
+            }
+
+            final Object records;
+            if (current != null && Array.getLength(current) == count) {
+                records = current;
+            }
+            else {
+                records = Array.newInstance(type, count);
+                if (current != null) {
+                    System.arraycopy(
+                        current, 0, records, 0,
+                        Math.min(count, Array.getLength(current)));
+                }
+                field.set(target, records);
+            }
+
+            for (int i = 0; i < count; i++) {
+                if (Array.get(records, i) == null) {
+                    Array.set(records, i, constructor.newInstance());
+                }
+            }
+            return records;
+        }
+
+        void encode(Object record, Buffer buffer)
+            throws IllegalAccessException {
+
+            boolean first = true;
+            for (FieldBinding binding : fields) {
+                final int count = binding.count(record);
+                for (int i = 0; i < count; i++) {
+                    if (!first) {
+                        buffer.put(FIELD_DELIMITER);
+                    }
+                    first = false;
+
+                    final int start = buffer.length;
+                    binding.write(record, i, buffer);
+                    if (buffer.length == start) {
+                        buffer.put(EMPTY_FIELD);
+                    }
+                }
+            }
+        }
+
+        void decode(Object record, Buffer buffer, int start, int end)
+            throws IllegalAccessException {
+
+            final byte[] bytes = buffer.bytes;
+            // An empty record has no fields, not a single empty field
+            int remaining = start == end ?
+                0 :
+                count(bytes, start, end, FIELD_DELIMITER) + 1;
+            int position = start;
+
+            for (int f = 0; f < fields.length; f++) {
+                final FieldBinding binding = fields[f];
+                final int count = occurrences(
+                    binding.min,
+                    binding.max,
+                    f == fields.length - 1,
+                    remaining,
+                    name + "." + binding.name);
+                remaining -= count;
+
+                binding.prepare(record, count);
+                for (int i = 0; i < count; i++) {
+                    final int fieldEnd =
+                        indexOf(bytes, position, end, FIELD_DELIMITER);
+                    if (fieldEnd == position + 1 &&
+                        bytes[position] == EMPTY_FIELD) {
+                        binding.read(record, i, buffer, fieldEnd, fieldEnd);
+                    }
+                    else {
+                        binding.read(record, i, buffer, position, fieldEnd);
+                    }
+                    position = fieldEnd + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * The supported types of Java field, or of the components of an array
+     * field.
+     */
+    private enum Kind {
+        STRING, INT, LONG, FIXED_POINT, BIG_DECIMAL;
+
+        static Kind of(
+            Class<?> type,
+            int scale,
+            java.lang.reflect.Field field) {
+
+            if (type == String.class && scale == 0) {
+                return STRING;
+            }
+            else if (type == int.class && scale == 0) {
+                return INT;
+            }
+            else if (type == long.class) {
+                return scale == 0 ? LONG : FIXED_POINT;
+            }
+            else if (type == BigDecimal.class && scale > 0) {
+                return BIG_DECIMAL;
+            }
+            throw new IllegalArgumentException(
+                field + " must be a String, int, long or BigDecimal, or " +
+                "an array of them, and only decimals may have a scale");
+        }
+    }
+
+    /**
+     * Binds a field of the schema to a Java field, or to the elements of an
+     * array field.
+     */
+    private static final class FieldBinding implements Occurs {
+        private final java.lang.reflect.Field field;
+        private final String name;
+        private final Kind kind;
+        private final Class<?> type;
+        private final int scale;
+        private final int min;
+        private final int max;
+        private final boolean array;
+
+        FieldBinding(java.lang.reflect.Field field) {
+            final Field annotation = field.getAnnotation(Field.class);
+            this.field = field;
+            name = annotation.name().isEmpty() ?
+                field.getName() :
+                annotation.name();
+            scale = annotation.scale();
+            min = annotation.min();
+            max = maxOf(annotation);
+            array = !isSingle(min, max);
+
+            type = array ?
+                field.getType().getComponentType() :
+                field.getType();
+            if (type == null) {
+                throw new IllegalArgumentException(
+                    field + " occurs " + min + ".." + max +
+                    " times and must be an array");
+            }
+            kind = Kind.of(type, scale, field);
+            if (scale > FixedPoint.MAX_SCALE) {
+                throw new IllegalArgumentException(
+                    field + " has an unsupported scale " + scale);
+            }
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int min() {
+            return min;
+        }
+
+        @Override
+        public int max() {
+            return max;
+        }
+
+        SchemaBuilder addTo(SchemaBuilder builder) {
+            switch (kind) {
+            case STRING:
+                return builder.string(name, min, max);
+            case INT:
+            case LONG:
+                return builder.integer(name, min, max);
+            default:
+                return builder.decimal(name, scale, min, max);
+            }
+        }
+
+        int count(Object record) throws IllegalAccessException {
+            if (!array) {
+                return 1;
+            }
+            final Object values = field.get(record);
+            final int count = values == null ? 0 : Array.getLength(values);
+            checkOccurrences(count, min, max, name);
+            return count;
+        }
+
+        /**
+         * Ensure an array field has the given length, reusing the array it
+         * already has.
+         */
+        void prepare(Object record, int count) throws IllegalAccessException {
+            if (!array) {
+                return;
+            }
+            final Object current = field.get(record);
+            if (current == null || Array.getLength(current) != count) {
+                field.set(record, Array.newInstance(type, count));
+            }
+        }
+
+        void write(Object record, int index, Buffer buffer)
+            throws IllegalAccessException {
+
+            final Object values = array ? field.get(record) : null;
+
+            switch (kind) {
+            case STRING:
+                buffer.putUTF8((String) (array ?
+                    Array.get(values, index) :
+                    field.get(record)));
+                break;
+            case INT:
+                buffer.putDecimal(
+                    array ?
+                        Array.getInt(values, index) :
+                        field.getInt(record),
+                    0);
+                break;
+            case LONG:
+            case FIXED_POINT:
+                buffer.putDecimal(
+                    array ?
+                        Array.getLong(values, index) :
+                        field.getLong(record),
+                    scale);
+                break;
+            default:
+                final BigDecimal value = (BigDecimal) (array ?
+                    Array.get(values, index) :
+                    field.get(record));
+                // A null decimal is written as an empty field
+                if (value != null) {
+                    buffer.putASCII(value
+                        .setScale(scale, RoundingMode.HALF_UP)
+                        .toPlainString());
+                }
+                break;
+            }
+        }
+
+        void read(Object record, int index, Buffer buffer, int start, int end)
+            throws IllegalAccessException {
+
+            final Object values = array ? field.get(record) : null;
+
+            switch (kind) {
+            case STRING: {
+                final String value =
+                    new String(buffer.bytes, start, end - start, UTF_8);
+                if (array) {
+                    Array.set(values, index, value);
+                }
+                else {
+                    field.set(record, value);
+                }
+                break;
+            }
+            case INT: {
+                final long value = parseNumber(buffer, start, end);
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    throw new NumberFormatException(
+                        "Integer out of range for " + field);
+                }
+                if (array) {
+                    Array.setInt(values, index, (int) value);
+                }
+                else {
+                    field.setInt(record, (int) value);
+                }
+                break;
+            }
+            case LONG:
+            case FIXED_POINT: {
+                final long value = parseNumber(buffer, start, end);
+                if (array) {
+                    Array.setLong(values, index, value);
+                }
+                else {
+                    field.setLong(record, value);
+                }
+                break;
+            }
+            default: {
+                // An empty field is read as a null decimal
+                final BigDecimal value = start == end ?
+                    null :
+                    new BigDecimal(
+                        new String(buffer.bytes, start, end - start, US_ASCII));
+                if (array) {
+                    Array.set(values, index, value);
+                }
+                else {
+                    field.set(record, value);
+                }
+                break;
+            }
+            }
+        }
+
+        private long parseNumber(Buffer buffer, int start, int end) {
+            if (start == end) {
+                throw new IllegalArgumentException(
+                    "Field " + name + " is empty and cannot be read into " +
+                    field);
+            }
+            // The parser rounds a fraction to the scale, which an integer
+            // field must not have
+            if (kind != Kind.FIXED_POINT &&
+                indexOf(buffer.bytes, start, end, (byte) '.') != end) {
+                throw new IllegalArgumentException(
+                    "Field " + name + " is not an integer");
+            }
+            return buffer.parse(start, end, scale);
+        }
+    }
+
+    /**
+     * A growable byte buffer, reused by each thread for encoding and
+     * decoding, with a decimal parser for each scale.
+     */
+    private static final class Buffer extends OutputStream {
+        private final FixedPoint.Parser[] parsers =
+            new FixedPoint.Parser[FixedPoint.MAX_SCALE + 1];
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int length;
+
+        private void ensure(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(
+                    bytes,
+                    Math.max(bytes.length * 2, length + additional));
+            }
+        }
+
+        void put(byte b) {
+            ensure(1);
+            bytes[length++] = b;
+        }
+
+        void putDecimal(long value, int scale) {
+            ensure(FixedPoint.MAX_FORMATTED_LENGTH);
+            length = FixedPoint.formatTo(value, scale, bytes, length);
+        }
+
+        void putASCII(String value) {
+            final int n = value.length();
+            ensure(n);
+            for (int i = 0; i < n; i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        /**
+         * Write a string as UTF-8 without an intermediate byte array. A null
+         * string is written as an empty field.
+         */
+        void putUTF8(String value) {
+            if (value == null) {
+                return;
+            }
+
+            final int n = value.length();
+            ensure(n * 3);
+            for (int i = 0; i < n; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                }
+                else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | c >> 6);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < n &&
+                    Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint =
+                        Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+                }
+                else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogates are replaced, as by String.getBytes
+                    bytes[length++] = '?';
+                }
+                else {
+                    bytes[length++] = (byte) (0xE0 | c >> 12);
+                    bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+        }
+
+        long parse(int start, int end, int scale) {
+            FixedPoint.Parser parser = parsers[scale];
+            if (parser == null) {
+                parser = new FixedPoint.Parser(scale);
+                parsers[scale] = parser;
+            }
+
+            parser.reset();
+            for (int i = start; i < end; i++) {
+                parser.accept(bytes[i] & 0xFF);
+            }
+            return parser.value();
+        }
+
+        @Override
+        public void write(int b) {
+            put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, bytes, length, len);
+            length += len;
+        }
+    }
+}
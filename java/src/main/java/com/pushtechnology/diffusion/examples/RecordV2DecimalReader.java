@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import com.pushtechnology.diffusion.datatype.recordv2.RecordV2;
+
+/**
+ * A mutable, reusable reader of the leading decimal fields of a
+ * {@link RecordV2} value.
+ * <P>
+ * Reading a value copies its bytes directly into a {@link FixedPoint.Parser}
+ * for each field, without the strings of {@link RecordV2#asFields()} or a
+ * model. Fields are numbered as they are by {@code asFields()}, across
+ * records. An empty field is not a decimal, but is reported as empty. A
+ * reader is not thread-safe; it is intended to be owned by a
+ * single value stream, which receives its values one at a time.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see FixedPoint
+ */
+final class RecordV2DecimalReader {
+
+    /** The delimiter between records. */
+    private static final int RECORD_DELIMITER = 0x01;
+
+    /** The delimiter between fields. */
+    private static final int FIELD_DELIMITER = 0x02;
+
+    /** The encoding of an empty field. */
+    private static final int EMPTY_FIELD = 0x03;
+
+    private final FieldSink sink = new FieldSink();
+    private final FixedPoint.Parser parser;
+    private final long[] values;
+    private final boolean[] valid;
+    private final boolean[] empty;
+
+    /**
+     * Constructor.
+     *
+     * @param scale the scale of the fields
+     * @param fieldCount the number of leading fields to read
+     */
+    RecordV2DecimalReader(int scale, int fieldCount) {
+        parser = new FixedPoint.Parser(scale);
+        values = new long[fieldCount];
+        valid = new boolean[fieldCount];
+        empty = new boolean[fieldCount];
+    }
+
+    /**
+     * Read a value into this reader, replacing any previous value.
+     *
+     * @param value the value
+     * @return this reader
+     */
+    RecordV2DecimalReader read(RecordV2 value) {
+        Arrays.fill(valid, false);
+        Arrays.fill(empty, false);
+        sink.field = 0;
+        sink.length = 0;
+        parser.reset();
+
+        try {
+            value.copyTo(sink);
+        }
+        catch (IOException e) {
+            // The sink never throws
+            throw new IllegalStateException(e);
+        }
+
+        sink.endField();
+        return this;
+    }
+
+    /**
+     * @param index the index of the field
+     * @return true if the field is present and a decimal
+     */
+    boolean isDecimal(int index) {
+        return valid[index];
+    }
+
+    /**
+     * @param index the index of the field
+     * @return true if the field is present and empty
+     */
+    boolean isEmpty(int index) {
+        return empty[index];
+    }
+
+    /**
+     * @param index the index of the field
+     * @return the scaled value of the field
+     * @throws NumberFormatException if the field is absent, empty or not a
+     *         decimal
+     */
+    long get(int index) {
+        if (!valid[index]) {
+            throw new NumberFormatException(
+                "Field " + index + " is not a decimal");
+        }
+        return values[index];
+    }
+
+    /**
+     * Parses the bytes of each field, completing a field at each delimiter.
+     */
+    private final class FieldSink extends OutputStream {
+        private int field;
+        private int length;
+
+        @Override
+        public void write(int b) {
+            if (field >= values.length) {
+                return;
+            }
+
+            if (b == RECORD_DELIMITER || b == FIELD_DELIMITER) {
+                endField();
+                field++;
+                length = 0;
+                parser.reset();
+            }
+            else if (b != EMPTY_FIELD) {
+                length++;
+                parser.accept(b & 0xFF);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private void endField() {
+            if (field >= values.length) {
+                return;
+            }
+
+            if (length == 0) {
+                empty[field] = true;
+                return;
+            }
+
+            try {
+                values[field] = parser.value();
+                valid[field] = true;
+            }
+            catch (NumberFormatException e) {
+                valid[field] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The last processed time series sequence number of each topic, persisted to
+ * an append-only file.
+ * <P>
+ * Each checkpoint appends a record of the topic path, written by
+ * {@link DataOutputStream#writeUTF}, and the sequence number. When the file
+ * is opened the last record for each path is loaded, and the file is
+ * compacted to hold just those records. A record that was only partly
+ * written, because the process stopped while writing it, is ignored.
+ * <P>
+ * Records are flushed to the operating system as they are written but are
+ * not forced to disk, so a consumer that resumes after a machine failure may
+ * process some events again.
+ * <P>
+ * This class is thread-safe.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ClientConsumingTimeSeriesTopics
+ */
+public final class SequenceCheckpoints implements Closeable {
+
+    private final Map<String, Long> sequences;
+    private final Lock lock = new ReentrantLock();
+    private final DataOutputStream out;
+
+    /**
+     * Constructor.
+     *
+     * @param file the checkpoint file, which is created if it does not exist
+     * @throws IOException if the file could not be read or written
+     */
+    public SequenceCheckpoints(Path file) throws IOException {
+        sequences = read(file);
+        compact(file, sequences);
+        out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file, CREATE, APPEND)));
+    }
+
+    /**
+     * @param topicPath the topic path
+     * @return the last sequence number checkpointed for the topic, or -1 if
+     *         there is none
+     */
+    public long getSequence(String topicPath) {
+        return sequences.getOrDefault(topicPath, -1L);
+    }
+
+    /**
+     * Record the last processed sequence number of a topic.
+     *
+     * @param topicPath the topic path
+     * @param sequence the sequence number
+     * @throws IOException if the checkpoint could not be written
+     */
+    public void checkpoint(String topicPath, long sequence) throws IOException {
+        lock.lock();
+        try {
+            out.writeUTF(topicPath);
+            out.writeLong(sequence);
+            out.flush();
+            sequences.put(topicPath, sequence);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private static Map<String, Long> read(Path file) throws IOException {
+        final Map<String, Long> result = new ConcurrentHashMap<>();
+
+        if (!Files.exists(file)) {
+            return result;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+
+            while (true) {
+                final String topicPath = in.readUTF();
+                result.put(topicPath, in.readLong());
+            }
+        }
+        catch (EOFException e) {
+            // End of the file, or of a partly written record
+            return result;
+        }
+    }
+
+    private static void compact(Path file, Map<String, Long> sequences)
+        throws IOException {
+
+        final Path compacted =
+            file.resolveSibling(file.getFileName() + ".compact");
+
+        try (DataOutputStream compactedOut = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+
+            for (Map.Entry<String, Long> entry : sequences.entrySet()) {
+                compactedOut.writeUTF(entry.getKey());
+                compactedOut.writeLong(entry.getValue());
+            }
+        }
+
+        Files.move(compacted, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.pushtechnology.diffusion.examples;
+
+import static com.pushtechnology.diffusion.client.session.Session.State.CONNECTED_ACTIVE;
+import static com.pushtechnology.diffusion.client.session.Session.State.RECOVERING_RECONNECT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pushtechnology.diffusion.client.features.TopicUpdate;
+import com.pushtechnology.diffusion.client.session.Session;
+import com.pushtechnology.diffusion.client.session.SessionFactory;
+
+/**
+ * A pool of sessions that shares the updates of a publisher between several
+ * connections.
+ * <P>
+ * Topic paths are assigned to sessions using a consistent hash, so different
+ * paths are spread across the connections. While a session is recovering
+ * from a connection loss its paths are reassigned to the other sessions and
+ * only those paths move. They return when it reconnects. If no session is
+ * connected, paths keep their normal assignment and updates are queued by the
+ * recovering sessions.
+ * <P>
+ * Updates of the same path are kept in order. Updates sent through the same
+ * session are delivered in order, so an update of a path is sent as soon as
+ * the previous update of the path has been sent through its session. When a
+ * path moves to another session, its next update is held until the last
+ * update sent through the previous session has completed, and later updates
+ * of the path queue behind it. Only that last update has to complete, so a
+ * busy path moves away from a recovering session as soon as the updates
+ * already sent through it are done, even though new updates keep arriving.
+ * <P>
+ * The number of incomplete updates sent through each session is tracked as
+ * its queue depth.
+ * <P>
+ * This class is thread-safe.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class SessionPool {
+
+    private static final Logger LOG =
+        LoggerFactory.getLogger(SessionPool.class);
+
+    /** The number of points on the hash ring for each session. */
+    private static final int POINTS_PER_SESSION = 64;
+
+    private final List<PooledSession> sessions;
+    private final NavigableMap<Integer, PooledSession> allSessionsRing;
+    private final ConcurrentMap<String, PathUpdate> lastUpdates =
+        new ConcurrentHashMap<>();
+    private final Session.Listener listener;
+    private volatile NavigableMap<Integer, PooledSession> connectedRing;
+
+    /**
+     * Constructor. Opens the sessions.
+     * <P>
+     * The pool sets its own session listener, replacing any listener the
+     * factory was configured with. Use
+     * {@link #SessionPool(SessionFactory, String, int, Session.Listener)} to
+     * also be notified of state changes.
+     *
+     * @param sessionFactory the factory used to open each session, configured
+     *        with the principal and credentials
+     * @param serverUrl for example "ws://diffusion.example.com:80"
+     * @param size the number of sessions
+     * @throws IllegalArgumentException if size is less than 1
+     */
+    public SessionPool(SessionFactory sessionFactory, String serverUrl, int size) {
+        this(sessionFactory, serverUrl, size, null);
+    }
+
+    /**
+     * Constructor. Opens the sessions.
+     *
+     * @param sessionFactory the factory used to open each session, configured
+     *        with the principal and credentials
+     * @param serverUrl for example "ws://diffusion.example.com:80"
+     * @param size the number of sessions
+     * @param listener notified of the state changes of every session after
+     *        the pool has handled them, or null
+     * @throws IllegalArgumentException if size is less than 1
+     */
+    public SessionPool(
+        SessionFactory sessionFactory,
+        String serverUrl,
+        int size,
+        Session.Listener listener) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
+        }
+
+        this.listener = listener;
+
+        final List<PooledSession> pooled = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                final PooledSession pooledSession = new PooledSession();
+                final Session session = sessionFactory
+                    .listener(pooledSession::onSessionStateChanged)
+                    .open(serverUrl);
+                pooledSession.session = session;
+                pooledSession.topicUpdate = session.feature(TopicUpdate.class);
+                pooledSession.connected = session.getState().isConnected();
+                pooled.add(pooledSession);
+            }
+        }
+        catch (RuntimeException e) {
+            // Do not leak the sessions already opened
+            pooled.forEach(pooledSession -> pooledSession.session.close());
+            throw e;
+        }
+        sessions = Collections.unmodifiableList(pooled);
+
+        allSessionsRing = buildRing(false);
+        connectedRing = buildRing(true);
+
+        // A state change reported after the ring was built but before it was
+        // assigned did not rebalance
+        rebalance();
+    }
+
+    /**
+     * Return the session responsible for a topic path.
+     *
+     * @param path the topic path
+     * @return the session
+     */
+    public Session sessionFor(String path) {
+        return pooledSessionFor(path).session;
+    }
+
+    /**
+     * Set the value of a topic using the session responsible for its path.
+     *
+     * @param path the topic path
+     * @param valueClass the value class of the topic
+     * @param value the value
+     * @param <T> the value type
+     * @return a CompletableFuture that completes when a response is received
+     *         from the server
+     */
+    public <T> CompletableFuture<?> set(
+        String path,
+        Class<T> valueClass,
+        T value) {
+
+        final PooledSession preferred = pooledSessionFor(path);
+
+        // The update is chained inside compute but must not be sent there,
+        // as its completion updates the map
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+
+        final PathUpdate update = lastUpdates.compute(path, (p, previous) -> {
+            final CompletableFuture<Void> ready;
+            if (previous == null) {
+                ready = gate;
+            }
+            else if (previous.pooledSession == preferred) {
+                // Follow the previous update through the same session
+                ready = gate.thenCombine(previous.sent, (x, y) -> null);
+            }
+            else {
+                // Fence: wait for the previous update through the previous
+                // session to complete, whatever its outcome
+                ready = gate.thenCombine(
+                    previous.done.handle((result, ex) -> null),
+                    (x, y) -> null);
+            }
+
+            return new PathUpdate(
+                preferred,
+                ready.thenApply(x -> send(preferred, path, valueClass, value)));
+        });
+
+        gate.complete(null);
+
+        update.done.whenComplete((result, ex) ->
+            lastUpdates.remove(path, update));
+
+        return update.done;
+    }
+
+    private static <T> CompletableFuture<Object> send(
+        PooledSession pooledSession,
+        String path,
+        Class<T> valueClass,
+        T value) {
+
+        final CompletableFuture<Object> done = new CompletableFuture<>();
+
+        pooledSession.queueDepth.incrementAndGet();
+        CompletableFuture<?> future;
+        try {
+            future = pooledSession.topicUpdate.set(path, valueClass, value);
+        }
+        // CHECKSTYLE.OFF: IllegalCatch
+        catch (RuntimeException e) {
+            // CHECKSTYLE.ON: IllegalCatch
+            final CompletableFuture<?> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            future = failed;
+        }
+
+        future.whenComplete((result, ex) -> {
+            pooledSession.queueDepth.decrementAndGet();
+            if (ex != null) {
+                done.completeExceptionally(ex);
+            }
+            else {
+                done.complete(result);
+            }
+        });
+
+        return done;
+    }
+
+    /**
+     * @return the number of incomplete updates of each session, in the order
+     *         the sessions were opened
+     */
+    public List<Integer> getQueueDepths() {
+        final List<Integer> depths = new ArrayList<>(sessions.size());
+        for (PooledSession pooledSession : sessions) {
+            depths.add(pooledSession.queueDepth.get());
+        }
+        return depths;
+    }
+
+    /**
+     * Close all the sessions.
+     */
+    public void close() {
+        sessions.forEach(pooledSession -> pooledSession.session.close());
+    }
+
+    private PooledSession pooledSessionFor(String path) {
+        NavigableMap<Integer, PooledSession> ring = connectedRing;
+        if (ring.isEmpty()) {
+            ring = allSessionsRing;
+        }
+
+        final Map.Entry<Integer, PooledSession> entry =
+            ring.ceilingEntry(hash(path));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private synchronized void rebalance() {
+        connectedRing = buildRing(true);
+    }
+
+    private NavigableMap<Integer, PooledSession> buildRing(
+        boolean connectedOnly) {
+
+        final NavigableMap<Integer, PooledSession> ring = new TreeMap<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            final PooledSession pooledSession = sessions.get(i);
+            if (connectedOnly && !pooledSession.connected) {
+                continue;
+            }
+            for (int point = 0; point < POINTS_PER_SESSION; point++) {
+                ring.put(hash(i + "#" + point), pooledSession);
+            }
+        }
+        return ring;
+    }
+
+    private static int hash(String key) {
+        // Spread the bits of the string hash code (MurmurHash3 finalizer)
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * The last update of a path that has not completed.
+     */
+    private static final class PathUpdate {
+        private final PooledSession pooledSession;
+        /** Completes with the future of the update once it has been sent. */
+        private final CompletableFuture<CompletableFuture<Object>> sent;
+        private final CompletableFuture<Object> done;
+
+        private PathUpdate(
+            PooledSession pooledSession,
+            CompletableFuture<CompletableFuture<Object>> sent) {
+
+            this.pooledSession = pooledSession;
+            this.sent = sent;
+            done = sent.thenCompose(future -> future);
+        }
+    }
+
+    /**
+     * A session of the pool and its state.
+     */
+    private final class PooledSession {
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private volatile Session session;
+        private volatile TopicUpdate topicUpdate;
+        private volatile boolean connected;
+
+        private void onSessionStateChanged(
+            Session changedSession,
+            Session.State oldState,
+            Session.State newState) {
+
+            if (newState == CONNECTED_ACTIVE) {
+                connected = true;
+            }
+            else if (newState == RECOVERING_RECONNECT || newState.isClosed()) {
+                LOG.info("Session {} is {}, rebalancing",
+                    changedSession.getSessionId(), newState);
+                connected = false;
+            }
+            else {
+                notifyListener(changedSession, oldState, newState);
+                return;
+            }
+
+            // Sessions report state changes while the pool is being
+            // constructed, before the rings exist. The constructor rebalances
+            // once they do.
+            if (connectedRing != null) {
+                rebalance();
+            }
+            notifyListener(changedSession, oldState, newState);
+        }
+
+        private void notifyListener(
+            Session changedSession,
+            Session.State oldState,
+            Session.State newState) {
+
+            if (listener != null) {
+                listener.onSessionStateChanged(
+                    changedSession,
+                    oldState,
+                    newState);
+            }
+        }
+    }
+}
@@ -18,15 +18,19 @@ import static java.lang.Math.max;
 import static java.util.Collections.unmodifiableSortedMap;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.pushtechnology.diffusion.client.callbacks.ErrorReason;
 import com.pushtechnology.diffusion.client.features.TimeSeries;
 import com.pushtechnology.diffusion.client.features.TimeSeries.Event;
@@ -45,22 +49,31 @@ import com.pushtechnology.diffusion.datatype.json.JSON;
  *
  * <p>
  * The view is modeled by the {@link ChatView} class. This has a start time, and
- * a map of sequence number to messages that have occurred after the start time.
+ * a ring buffer of the messages that have occurred after the start time,
+ * indexed by sequence number.
  *
  * <p>
  * The {@link #subscribeChatView subscribeChatView} method subscribes a session
  * to a time series topic of chat messages stored as JSON objects. ChatView
  * models each chat message using the {@link ChatMessage} class. Once
  * subscribed, the ChatView will be asynchronously updated with new messages and
- * edits to existing messages.
+ * edits to existing messages. If the ChatView has missed events, they are
+ * retrieved by range queries over chunks of the missing sequence numbers,
+ * several of which are run in parallel.
  *
  * @author DiffusionData Limited
  * @since 6.0
  */
 public final class TimeSeriesQueryExample {
-    /** Jackson ObjectMapper used by {@link #jsonToChat(JSON)}. */
-    private static final ObjectMapper CBOR_MAPPER =
-        new ObjectMapper(new CBORFactory());
+    /** Jackson codec used by {@link #jsonToChat(JSON)}. */
+    private static final JSONCodec<ChatMessage> CHAT_CODEC =
+        JSONCodec.forType(ChatMessage.class);
+
+    /** Default number of sequence numbers retrieved by each gap query. */
+    private static final int GAP_CHUNK_SIZE = 1000;
+
+    /** Default number of gap queries run in parallel. */
+    private static final int GAP_QUERY_PARALLELISM = 4;
 
     private TimeSeriesQueryExample() {
     }
@@ -79,6 +92,44 @@ public final class TimeSeriesQueryExample {
         String chatTopicPath,
         Consumer<Throwable> errorHandler) {
 
+        subscribeChatView(
+            session,
+            chatView,
+            chatTopicPath,
+            GAP_CHUNK_SIZE,
+            GAP_QUERY_PARALLELISM,
+            errorHandler);
+    }
+
+    /**
+     * Connect a ChatView to a time series topic.
+     *
+     * @param chatView the ChatView
+     * @param chatTopicPath path of a JSON time series topic storing chat
+     *        messages
+     * @param chunkSize the number of sequence numbers retrieved by each
+     *        query for missing events
+     * @param parallelism the maximum number of queries for missing events
+     *        to run at once
+     * @param errorHandler called if an operation fails
+     * @throws IllegalArgumentException if chunkSize or parallelism is not
+     *         positive
+     */
+    public static void subscribeChatView(
+        Session session,
+        ChatView chatView,
+        String chatTopicPath,
+        int chunkSize,
+        int parallelism,
+        Consumer<Throwable> errorHandler) {
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+
         final Topics topics = session.feature(Topics.class);
 
         final ValueStream<Event<JSON>> subscriptionStream =
@@ -102,21 +153,18 @@ public final class TimeSeriesQueryExample {
 
                         initialValue = false;
 
-                        final Query<JSON> query = chatView.missingEventQuery(
+                        new GapFill(
                             session.feature(TimeSeries.class),
-                            event.sequence());
-
-                        query
-                            .selectFrom(chatTopicPath)
-                            .whenComplete((result, e) -> {
-                                if (e != null) {
-                                    topics.removeStream(this);
-                                    errorHandler.accept(e);
-                                }
-                                else {
-                                    result.stream().forEach(chatView::addEvent);
-                                }
-                            });
+                            chatView,
+                            chatTopicPath,
+                            chatView.expectedNextSequence(),
+                            event.sequence() - 1,
+                            chunkSize,
+                            e -> {
+                                topics.removeStream(this);
+                                errorHandler.accept(e);
+                            })
+                            .start(parallelism);
                     }
 
                     chatView.addEvent(event);
@@ -140,16 +188,153 @@ public final class TimeSeriesQueryExample {
             });
     }
 
+    /**
+     * Retrieves the events in a range of sequence numbers with a query per
+     * chunk of the range. Each query that completes starts the query for
+     * the next chunk that has not been started, so that a fixed number of
+     * queries run at once.
+     * <p>
+     * The chunks start at the later of the start of the range and the first
+     * event at or after the start of the view, which is found by an initial
+     * query. Events before the start of the view are never retrieved, so a
+     * view that has processed no events does not fetch the whole history of
+     * the topic.
+     * <p>
+     * Each chunk query selects the original events in the chunk, with their
+     * latest edits. Edits made in the range to original events before it
+     * are retrieved by one further query, whose edit range is the range.
+     */
+    private static final class GapFill {
+        private final TimeSeries timeSeries;
+        private final ChatView chatView;
+        private final String chatTopicPath;
+        private final long from;
+        private final long to;
+        private final int chunkSize;
+        private final Consumer<Throwable> errorHandler;
+        private final AtomicLong nextChunk = new AtomicLong();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        GapFill(
+            TimeSeries timeSeries,
+            ChatView chatView,
+            String chatTopicPath,
+            long from,
+            long to,
+            int chunkSize,
+            Consumer<Throwable> errorHandler) {
+
+            this.timeSeries = timeSeries;
+            this.chatView = chatView;
+            this.chatTopicPath = chatTopicPath;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.errorHandler = errorHandler;
+        }
+
+        void start(int parallelism) {
+            chatView.firstEventQuery(timeSeries)
+                .selectFrom(chatTopicPath)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        failed.set(true);
+                        errorHandler.accept(e);
+                        return;
+                    }
+
+                    final long first = result.stream()
+                        .findFirst()
+                        .map(event -> event.originalEvent().sequence())
+                        .orElse(to + 1);
+                    nextChunk.set(max(from, first));
+
+                    for (int i = 0; i < parallelism; i++) {
+                        queryNextChunk();
+                    }
+
+                    if (from > 0) {
+                        run(chatView.missedEditsQuery(timeSeries, from, to),
+                            false);
+                    }
+                });
+        }
+
+        private void queryNextChunk() {
+            if (failed.get()) {
+                return;
+            }
+
+            final long chunkStart = nextChunk.getAndAdd(chunkSize);
+            if (chunkStart > to) {
+                return;
+            }
+
+            run(
+                chatView.missingEventQuery(
+                    timeSeries,
+                    chunkStart,
+                    chunkStart + Math.min(chunkSize - 1, to - chunkStart)),
+                true);
+        }
+
+        private void run(Query<JSON> query, boolean chunk) {
+            query
+                .selectFrom(chatTopicPath)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        if (failed.compareAndSet(false, true)) {
+                            errorHandler.accept(e);
+                        }
+                    }
+                    else {
+                        result.stream().forEach(chatView::addEvent);
+                        if (chunk) {
+                            queryNextChunk();
+                        }
+                    }
+                });
+        }
+    }
+
     /**
      * A client-side model of a time series of ChatMessages.
+     * <p>
+     * Messages are held in a ring buffer indexed by the sequence number of
+     * the original event, so a message is stored or replaced by an edit with
+     * a single compare and set. Events can be added in any order, by any
+     * number of threads. An event replaces the event in its slot if it is
+     * for a later original event, or is a later edit of the same original
+     * event.
+     * <p>
+     * The view retains at most the capacity of the ring buffer. The
+     * {@link Options} can further limit the view to messages younger than a
+     * maximum age, or to a maximum total size. When either limit is
+     * exceeded the oldest messages are evicted. The size of a message is
+     * the size of its JSON encoding. The options can also defer decoding a
+     * message until it is read, so that the view only holds the JSON of
+     * messages that are never read.
      */
     public static class ChatView {
 
         private final Instant startOfView;
-        private final SortedMap<Long, Event<ChatMessage>> messages =
-            new TreeMap<>();
+        private final AtomicReferenceArray<Entry> entries;
+        private final int mask;
+        private final long maxAgeMillis;
+        private final long maxBytes;
+        private final boolean lazyDecode;
+
+        private final AtomicLong latestSequence = new AtomicLong(-1);
+        private final AtomicLong latestOriginalSequence = new AtomicLong(-1);
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong nextExpiry = new AtomicLong(Long.MAX_VALUE);
+        private final Lock evictionLock = new ReentrantLock();
 
-        private long latestSequence = -1;
+        /**
+         * Messages with an original sequence number lower than this have
+         * been evicted. Only written while holding the eviction lock.
+         */
+        private volatile long evictFrom;
 
         /**
          * Constructor.
@@ -157,44 +342,388 @@ public final class TimeSeriesQueryExample {
          * @param startOfView the start of the view
          */
         public ChatView(Instant startOfView) {
+            this(startOfView, Options.DEFAULT);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param startOfView the start of the view
+         * @param capacity the maximum number of messages to retain, which
+         *        must be a power of two
+         */
+        public ChatView(Instant startOfView, int capacity) {
+            this(startOfView, Options.DEFAULT.withCapacity(capacity));
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param startOfView the start of the view
+         * @param options the retention and decoding options
+         */
+        public ChatView(Instant startOfView, Options options) {
             this.startOfView = startOfView;
+            entries = new AtomicReferenceArray<>(options.capacity);
+            mask = options.capacity - 1;
+            maxAgeMillis = options.maxAgeMillis;
+            maxBytes = options.maxBytes;
+            lazyDecode = options.lazyDecode;
         }
 
         /**
-         * @return an ordered map of sequence number -> chat message events
+         * @return a snapshot of the view as an ordered map of sequence
+         *         number -> chat message events
+         * @see #forEachMessage(Consumer)
          */
         public SortedMap<Long, Event<ChatMessage>> getMessages() {
-            return unmodifiableSortedMap(messages);
+            final SortedMap<Long, Event<ChatMessage>> result = new TreeMap<>();
+            forEachMessage(
+                event -> result.put(event.originalEvent().sequence(), event));
+            return unmodifiableSortedMap(result);
+        }
+
+        /**
+         * Pass each message in the view to a consumer, in sequence order.
+         *
+         * @param consumer the consumer
+         */
+        public void forEachMessage(Consumer<Event<ChatMessage>> consumer) {
+            final long now = System.currentTimeMillis();
+            final long latest = latestOriginalSequence.get();
+
+            for (long s = max(evictFrom, latest - mask); s <= latest; s++) {
+                final Entry entry = entries.get(slot(s));
+                if (entry != null &&
+                    entry.originalSequence == s &&
+                    !expired(entry, now)) {
+                    consumer.accept(entry.message());
+                }
+            }
         }
 
-        private synchronized void addEvent(Event<JSON> event) {
+        /**
+         * @param sequence the sequence number of the original event
+         * @return the message, or null if it is not in the view
+         */
+        public Event<ChatMessage> getMessage(long sequence) {
+            final Entry entry = entries.get(slot(sequence));
+            if (entry != null &&
+                entry.originalSequence == sequence &&
+                sequence >= evictFrom &&
+                !expired(entry, System.currentTimeMillis())) {
+                return entry.message();
+            }
+            return null;
+        }
+
+        private void addEvent(Event<JSON> event) {
             if (event.timestamp() >= startOfView.toEpochMilli()) {
-                messages.put(
-                    event.originalEvent().sequence(),
-                    event.withValue(jsonToChat(event.value())));
+                store(new Entry(event, lazyDecode));
+            }
+
+            latestSequence.accumulateAndGet(event.sequence(), Math::max);
+        }
+
+        private void store(Entry entry) {
+            final long original = entry.originalSequence;
+            if (original < evictFrom) {
+                return;
             }
 
-            latestSequence = max(latestSequence, event.sequence());
+            final int slot = slot(original);
+
+            Entry existing;
+            do {
+                existing = entries.get(slot);
+                if (existing != null && !entry.supersedes(existing)) {
+                    return;
+                }
+            }
+            while (!entries.compareAndSet(slot, existing, entry));
+
+            bytes.addAndGet(
+                entry.size - (existing == null ? 0 : existing.size));
+            latestOriginalSequence.accumulateAndGet(original, Math::max);
+            nextExpiry.accumulateAndGet(expiry(entry), Math::min);
+
+            if (original < evictFrom) {
+                // Raced with eviction
+                remove(slot, entry);
+            }
+
+            if (bytes.get() > maxBytes ||
+                System.currentTimeMillis() >= nextExpiry.get()) {
+                evict();
+            }
         }
 
-        private synchronized long expectedNextSequence() {
-            return latestSequence + 1;
+        /**
+         * Evict the oldest messages until the view is within its limits.
+         * Only one thread evicts at a time; other threads do not wait.
+         */
+        private void evict() {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+
+            try {
+                final long now = System.currentTimeMillis();
+                final long latest = latestOriginalSequence.get();
+                long sequence = evictFrom;
+
+                if (latest - sequence > mask) {
+                    // Skip the sequence numbers that cannot be in the ring
+                    sequence = max(sequence, oldestOriginalSequence());
+                }
+
+                while (sequence <= latest &&
+                    (bytes.get() > maxBytes || now >= nextExpiry.get())) {
+
+                    final int slot = slot(sequence);
+                    final Entry entry = entries.get(slot);
+
+                    if (entry != null && entry.originalSequence == sequence) {
+                        if (bytes.get() <= maxBytes && !expired(entry, now)) {
+                            nextExpiry.set(expiry(entry));
+                            break;
+                        }
+                        if (!remove(slot, entry)) {
+                            // Replaced by an edit, examine it again
+                            continue;
+                        }
+                    }
+
+                    sequence++;
+                    evictFrom = sequence;
+                }
+            }
+            finally {
+                evictionLock.unlock();
+            }
+        }
+
+        private long oldestOriginalSequence() {
+            long oldest = Long.MAX_VALUE;
+            for (int i = 0; i < entries.length(); i++) {
+                final Entry entry = entries.get(i);
+                if (entry != null) {
+                    oldest = Math.min(oldest, entry.originalSequence);
+                }
+            }
+            return oldest;
+        }
+
+        private boolean remove(int slot, Entry entry) {
+            if (entries.compareAndSet(slot, entry, null)) {
+                bytes.addAndGet(-entry.size);
+                return true;
+            }
+            return false;
+        }
+
+        private int slot(long sequence) {
+            return (int) sequence & mask;
+        }
+
+        private boolean expired(Entry entry, long now) {
+            return now - entry.timestamp > maxAgeMillis;
+        }
+
+        private long expiry(Entry entry) {
+            return maxAgeMillis == Long.MAX_VALUE ?
+                Long.MAX_VALUE :
+                entry.timestamp + maxAgeMillis + 1;
+        }
+
+        private long expectedNextSequence() {
+            return latestSequence.get() + 1;
         }
 
         /**
-         * @return a query configured to return all events that affect the view
-         *         from the next expected event until receivedSequence
+         * @return a query configured to return the first original event at
+         *         or after the start of the view, with its latest edit
          */
-        private synchronized Query<JSON> missingEventQuery(
+        private Query<JSON> firstEventQuery(TimeSeries timeSeries) {
+            return timeSeries.rangeQuery()
+                .from(startOfView)
+                .next(1)
+                .as(JSON.class);
+        }
+
+        /**
+         * @return a query configured to return the original events with
+         *         sequence numbers from {@code from} to {@code to}, with
+         *         their latest edits
+         */
+        private Query<JSON> missingEventQuery(
             TimeSeries timeSeries,
-            long receivedSequence) {
+            long from,
+            long to) {
+
+            return timeSeries.rangeQuery()
+                .from(from)
+                .to(to)
+                .as(JSON.class);
+        }
+
+        /**
+         * @return a query configured to return the edits with sequence
+         *         numbers from {@code from} to {@code to} of original events
+         *         in the view that precede {@code from}
+         */
+        private Query<JSON> missedEditsQuery(
+            TimeSeries timeSeries,
+            long from,
+            long to) {
 
             return timeSeries.rangeQuery()
                 .from(startOfView)
-                .editRange().from(latestSequence + 1)
-                .to(receivedSequence - 1)
+                .to(from - 1)
+                .editRange().from(from)
+                .to(to)
                 .as(JSON.class);
         }
+
+        /**
+         * The retention and decoding options of a {@link ChatView}.
+         * <p>
+         * Options are immutable. Each {@code with} method returns a copy
+         * with the option changed.
+         */
+        public static final class Options {
+
+            /**
+             * The default options. A capacity of 65536 messages, no age or
+             * size limit, and messages decoded when added to the view.
+             */
+            public static final Options DEFAULT =
+                new Options(1 << 16, Long.MAX_VALUE, Long.MAX_VALUE, false);
+
+            private final int capacity;
+            private final long maxAgeMillis;
+            private final long maxBytes;
+            private final boolean lazyDecode;
+
+            private Options(
+                int capacity,
+                long maxAgeMillis,
+                long maxBytes,
+                boolean lazyDecode) {
+
+                this.capacity = capacity;
+                this.maxAgeMillis = maxAgeMillis;
+                this.maxBytes = maxBytes;
+                this.lazyDecode = lazyDecode;
+            }
+
+            /**
+             * @param capacity the maximum number of messages to retain,
+             *        which must be a power of two
+             * @return options with the capacity changed
+             */
+            public Options withCapacity(int capacity) {
+                if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+                    throw new IllegalArgumentException(
+                        "Capacity must be a power of two: " + capacity);
+                }
+                return new Options(
+                    capacity,
+                    maxAgeMillis,
+                    maxBytes,
+                    lazyDecode);
+            }
+
+            /**
+             * @param maxAge the maximum age of a message, measured from the
+             *        timestamp of its original event
+             * @return options with the maximum age changed
+             */
+            public Options withMaxAge(Duration maxAge) {
+                return new Options(
+                    capacity,
+                    maxAge.toMillis(),
+                    maxBytes,
+                    lazyDecode);
+            }
+
+            /**
+             * @param maxBytes the maximum total size of the JSON encoding of
+             *        the messages
+             * @return options with the maximum size changed
+             */
+            public Options withMaxBytes(long maxBytes) {
+                return new Options(
+                    capacity,
+                    maxAgeMillis,
+                    maxBytes,
+                    lazyDecode);
+            }
+
+            /**
+             * @param lazyDecode true to keep the JSON of a message until it
+             *        is read, false to decode messages when they are added
+             * @return options with lazy decoding changed
+             */
+            public Options withLazyDecode(boolean lazyDecode) {
+                return new Options(
+                    capacity,
+                    maxAgeMillis,
+                    maxBytes,
+                    lazyDecode);
+            }
+        }
+
+        /**
+         * A message in the view.
+         * <p>
+         * If decoding is lazy, the entry holds the JSON event until the
+         * message is first read. The decoded event is published before the
+         * JSON event is released, so a reader that finds neither has raced
+         * with another reader and can read the decoded event again.
+         */
+        private static final class Entry {
+            private final long originalSequence;
+            private final long sequence;
+            private final long timestamp;
+            private final int size;
+            private volatile Event<JSON> json;
+            private volatile Event<ChatMessage> decoded;
+
+            Entry(Event<JSON> event, boolean lazyDecode) {
+                originalSequence = event.originalEvent().sequence();
+                sequence = event.sequence();
+                timestamp = event.originalEvent().timestamp();
+                size = event.value().length();
+
+                if (lazyDecode) {
+                    json = event;
+                }
+                else {
+                    decoded = event.withValue(jsonToChat(event.value()));
+                }
+            }
+
+            Event<ChatMessage> message() {
+                Event<ChatMessage> result = decoded;
+                if (result == null) {
+                    final Event<JSON> event = json;
+                    if (event == null) {
+                        return decoded;
+                    }
+                    result = event.withValue(jsonToChat(event.value()));
+                    decoded = result;
+                    json = null;
+                }
+                return result;
+            }
+
+            boolean supersedes(Entry existing) {
+                return originalSequence > existing.originalSequence ||
+                    originalSequence == existing.originalSequence &&
+                    sequence > existing.sequence;
+            }
+        }
     }
 
     /**
@@ -249,7 +778,7 @@ public final class TimeSeriesQueryExample {
      */
     private static ChatMessage jsonToChat(JSON value) {
         try {
-            return CBOR_MAPPER.readValue(value.asInputStream(), ChatMessage.class);
+            return CHAT_CODEC.fromJSON(value);
         }
         catch (IOException e) {
             throw new RuntimeException("Failed to parse event as chat message", e);
@@ -0,0 +1,458 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pushtechnology.diffusion.client.Diffusion;
+import com.pushtechnology.diffusion.client.features.TopicUpdate;
+import com.pushtechnology.diffusion.client.features.Topics;
+import com.pushtechnology.diffusion.client.features.Topics.FetchResult.TopicResult;
+import com.pushtechnology.diffusion.client.features.control.topics.TopicControl;
+import com.pushtechnology.diffusion.client.session.Session;
+import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
+import com.pushtechnology.diffusion.client.topics.details.TopicType;
+import com.pushtechnology.diffusion.datatype.Bytes;
+import com.pushtechnology.diffusion.datatype.DataTypes;
+import com.pushtechnology.diffusion.datatype.binary.Binary;
+import com.pushtechnology.diffusion.datatype.json.JSON;
+import com.pushtechnology.diffusion.datatype.recordv2.RecordV2;
+
+/**
+ * An example of exporting topics to, and loading topics from, a snapshot
+ * file. This can be used to seed a server, or to keep a warm
+ * standby, from the topics of another server.
+ * <P>
+ * Topics are exported with a paged fetch using a {@link FetchCursor}. Each
+ * value is copied straight from the fetch result into the write buffer of
+ * the file, so only one page of values is held at a time. The file is read
+ * back through memory mapped windows.
+ * <P>
+ * The file starts with a header of a magic number, a version, the number of
+ * topics and the offset of the index. The header is followed by one record
+ * per topic, in topic tree order, then the index. A record is its length,
+ * the topic path, the topic type, the topic properties and the value, or -1
+ * if the topic has no value. Strings are written as a length followed by
+ * UTF-8 bytes. The index is the offset of each record, so a record can be
+ * located without reading the ones before it.
+ * <P>
+ * Topics are loaded with {@link TopicUpdate#addAndSet addAndSet}, or with
+ * {@link TopicControl#addTopic addTopic} if they have no value. Up to a
+ * specified number of requests are in flight at once, instead of waiting
+ * for each request to complete before sending the next.
+ * <P>
+ * This makes use of the 'Topics', 'TopicUpdate' and 'TopicControl' features.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class TopicSnapshot {
+
+    private static final Logger LOG =
+        LoggerFactory.getLogger(TopicSnapshot.class);
+
+    private static final int MAGIC = 0x44534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final DataTypes DATA_TYPES = Diffusion.dataTypes();
+
+    /**
+     * The value classes of each data type, by data type name.
+     */
+    private static final Map<String, Class<?>> VALUE_TYPES = new HashMap<>();
+
+    static {
+        VALUE_TYPES.put("binary", Binary.class);
+        VALUE_TYPES.put("double", Double.class);
+        VALUE_TYPES.put("int64", Long.class);
+        VALUE_TYPES.put("json", JSON.class);
+        VALUE_TYPES.put("record_v2", RecordV2.class);
+        VALUE_TYPES.put("string", String.class);
+    }
+
+    private final Topics topics;
+    private final TopicUpdate topicUpdate;
+    private final TopicControl topicControl;
+
+    /**
+     * Constructor.
+     *
+     * @param session the session to export from or load into
+     */
+    public TopicSnapshot(Session session) {
+        topics = session.feature(Topics.class);
+        topicUpdate = session.feature(TopicUpdate.class);
+        topicControl = session.feature(TopicControl.class);
+    }
+
+    /**
+     * Export the topics matching a selector to a snapshot file.
+     *
+     * @param selector the topic selector
+     * @param pageSize the number of topics to fetch at a time
+     * @param file the file to write, which is replaced if it exists
+     * @return the number of topics exported
+     * @throws IOException if the file could not be written
+     */
+    public long export(String selector, int pageSize, Path file)
+        throws IOException {
+
+        try (FileChannel channel = FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            final SnapshotWriter writer = new SnapshotWriter(channel);
+            final FetchCursor<Bytes> cursor = new FetchCursor<>(
+                topics.fetchRequest().withValues(Bytes.class).withProperties(),
+                selector,
+                pageSize);
+
+            while (cursor.hasNext()) {
+                writer.write(cursor.next());
+            }
+
+            final long count = writer.finish();
+            LOG.info("Exported {} topics to {}", count, file);
+            return count;
+        }
+    }
+
+    /**
+     * Load the topics in a snapshot file into the server.
+     * <P>
+     * Topics are created if they do not exist and their values set. If
+     * reading the file fails partway through, the requests already sent are
+     * waited for before the exception is thrown.
+     *
+     * @param file the file to read
+     * @param maxInFlight the maximum number of requests to have in flight
+     * @return the number of topics loaded
+     * @throws IOException if the file could not be read
+     * @throws InterruptedException if interrupted while waiting to send a
+     *         request; the requests already sent are still waited for
+     */
+    public long load(Path file, int maxInFlight)
+        throws IOException, InterruptedException {
+
+        final Semaphore window = new Semaphore(maxInFlight);
+        final AtomicLong loaded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+
+        try (FileChannel channel =
+            FileChannel.open(file, StandardOpenOption.READ)) {
+
+            final SnapshotReader reader = new SnapshotReader(channel);
+
+            for (int i = 0; i < reader.size(); i++) {
+                final ByteBuffer record = reader.record(i);
+
+                final String path = readString(record);
+                final TopicSpecification specification =
+                    Diffusion.newTopicSpecification(
+                        TopicType.valueOf(readString(record)))
+                        .withProperties(readProperties(record));
+                final byte[] value = readValue(record);
+
+                window.acquire();
+
+                CompletableFuture<?> request;
+                try {
+                    request = load(path, specification, value);
+                }
+                // CHECKSTYLE.OFF: IllegalCatch
+                catch (RuntimeException e) {
+                    // CHECKSTYLE.ON: IllegalCatch
+                    final CompletableFuture<?> failure =
+                        new CompletableFuture<>();
+                    failure.completeExceptionally(e);
+                    request = failure;
+                }
+
+                request.whenComplete((result, ex) -> {
+                    window.release();
+                    if (ex != null) {
+                        LOG.warn("Failed to load {}", path, ex);
+                        failed.incrementAndGet();
+                    }
+                    else {
+                        loaded.incrementAndGet();
+                    }
+                });
+            }
+        }
+        finally {
+            // Wait for the requests in flight to complete, even if the file
+            // could not be read, so that none completes after this returns
+            window.acquireUninterruptibly(maxInFlight);
+            window.release(maxInFlight);
+        }
+
+        LOG.info(
+            "Loaded {} topics from {}, {} failed",
+            loaded.get(),
+            file,
+            failed.get());
+        return loaded.get();
+    }
+
+    private CompletableFuture<?> load(
+        String path,
+        TopicSpecification specification,
+        byte[] value) {
+
+        if (value == null) {
+            return topicControl.addTopic(path, specification);
+        }
+
+        final TopicType type = specification.getType();
+        final String dataTypeName = type == TopicType.TIME_SERIES ?
+            specification.getProperties()
+                .get(TopicSpecification.TIME_SERIES_EVENT_VALUE_TYPE) :
+            type.name().toLowerCase(Locale.ROOT);
+        final Class<?> valueType = VALUE_TYPES.get(dataTypeName);
+
+        if (valueType == null) {
+            final CompletableFuture<?> result = new CompletableFuture<>();
+            result.completeExceptionally(new IllegalArgumentException(
+                "Topic type " + type + " is not supported"));
+            return result;
+        }
+
+        return addAndSet(path, specification, valueType, value);
+    }
+
+    private <V> CompletableFuture<?> addAndSet(
+        String path,
+        TopicSpecification specification,
+        Class<V> valueType,
+        byte[] value) {
+
+        return topicUpdate.addAndSet(
+            path,
+            specification,
+            valueType,
+            DATA_TYPES.getByClass(valueType).readValue(value));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static Map<String, String> readProperties(ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        final Map<String, String> properties = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            properties.put(readString(buffer), readString(buffer));
+        }
+        return properties;
+    }
+
+    private static byte[] readValue(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] value = new byte[length];
+        buffer.get(value);
+        return value;
+    }
+
+    /**
+     * Writes records to a snapshot file through a buffered stream on its
+     * channel. The header is written last, at the start of the file.
+     */
+    private static final class SnapshotWriter {
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private long[] offsets = new long[1024];
+        private int count;
+        private long position = HEADER_SIZE;
+
+        SnapshotWriter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(HEADER_SIZE);
+            out = new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(channel),
+                WRITE_BUFFER_SIZE));
+        }
+
+        void write(TopicResult<Bytes> result) throws IOException {
+            final byte[] path = result.path().getBytes(UTF_8);
+            final TopicSpecification specification = result.specification();
+            final byte[] type = specification.getType().name().getBytes(UTF_8);
+            final Map<String, String> properties =
+                specification.getProperties();
+            final Bytes value = result.value();
+
+            int size = 4 + path.length + 4 + type.length + 4 + 4;
+            final byte[][] encodedProperties = new byte[properties.size() * 2][];
+            int i = 0;
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                encodedProperties[i] = property.getKey().getBytes(UTF_8);
+                encodedProperties[i + 1] = property.getValue().getBytes(UTF_8);
+                size += 8 + encodedProperties[i].length +
+                    encodedProperties[i + 1].length;
+                i += 2;
+            }
+            if (value != null) {
+                size += value.length();
+            }
+
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position;
+
+            out.writeInt(size);
+            putBytes(path);
+            putBytes(type);
+            out.writeInt(properties.size());
+            for (byte[] bytes : encodedProperties) {
+                putBytes(bytes);
+            }
+            if (value == null) {
+                out.writeInt(-1);
+            }
+            else {
+                out.writeInt(value.length());
+                value.copyTo(out);
+            }
+            position += 4L + size;
+        }
+
+        /**
+         * Write the index and header, and force the file to storage.
+         *
+         * @return the number of records
+         */
+        long finish() throws IOException {
+            final long indexOffset = position;
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+            }
+            position += 8L * count;
+            out.flush();
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count)
+                .putLong(indexOffset).flip();
+            channel.write(header, 0);
+            channel.force(true);
+
+            return count;
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads records from a snapshot file through a window that is mapped
+     * again when a record is outside of it.
+     */
+    private static final class SnapshotReader {
+        private final FileChannel channel;
+        private final LongBuffer index;
+        private long windowStart;
+        private ByteBuffer window;
+
+        SnapshotReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE ||
+                header.getInt() != MAGIC) {
+                throw new IOException("Not a topic snapshot");
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(
+                    "Unsupported topic snapshot version " + version);
+            }
+            final int count = header.getInt();
+            final long indexOffset = header.getLong();
+
+            index = channel
+                .map(FileChannel.MapMode.READ_ONLY, indexOffset, count * 8L)
+                .asLongBuffer();
+        }
+
+        int size() {
+            return index.capacity();
+        }
+
+        /**
+         * @return a buffer positioned at the start of the record body
+         */
+        ByteBuffer record(int i) throws IOException {
+            final long offset = index.get(i);
+            final ByteBuffer length = slice(offset, 4);
+            return slice(offset + 4, length.getInt());
+        }
+
+        private ByteBuffer slice(long offset, int length) throws IOException {
+            if (window == null ||
+                offset < windowStart ||
+                offset + length > windowStart + window.capacity()) {
+
+                windowStart = offset;
+                window = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    offset,
+                    Math.min(
+                        Math.max(WINDOW_SIZE, length),
+                        channel.size() - offset));
+            }
+
+            final ByteBuffer slice = window.duplicate();
+            slice.position((int) (offset - windowStart));
+            slice.limit(slice.position() + length);
+            return slice;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.pushtechnology.diffusion.examples;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pushtechnology.diffusion.client.features.Topics;
+import com.pushtechnology.diffusion.client.features.Topics.FetchResult.TopicResult;
+import com.pushtechnology.diffusion.client.features.Topics.UnsubscribeReason;
+import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
+
+/**
+ * A read-through cache of topic values.
+ * <P>
+ * A value that is not cached is fetched from the server and cached until its
+ * time to live expires. Concurrent reads of the same uncached path share one
+ * fetch. When more than the maximum number of fetched values are cached, the
+ * least recently read one is evicted.
+ * <P>
+ * The cache can also subscribe to topics. Values received from a
+ * subscription replace fetched values and neither expire nor count towards
+ * the maximum size. They are held until the topic is unsubscribed, so reads
+ * of subscribed paths are always served locally and are as fresh as the
+ * subscription.
+ * <P>
+ * Missing topics are not cached. Hits, misses and evictions are counted. A
+ * read that shares a fetch started by another read is neither a hit nor a
+ * miss.
+ * <P>
+ * This class is thread-safe.
+ *
+ * @param <V> the value type
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ClientUsingFetch
+ */
+public final class TopicValueCache<V> {
+
+    private static final Logger LOG =
+        LoggerFactory.getLogger(TopicValueCache.class);
+
+    private final Topics topics;
+    private final Class<V> valueClass;
+    private final long timeToLiveNanos;
+    // Fetched values, in order of access. Guarded by entries.
+    private final Map<String, Entry<V>> entries;
+    // Values from subscriptions. Guarded by entries.
+    private final Map<String, V> liveValues = new HashMap<>();
+    // Fetches in progress. Guarded by entries.
+    private final Map<String, CompletableFuture<V>> loading = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param topics the topics feature
+     * @param valueClass the value class of the topics
+     * @param maximumSize the maximum number of cached fetched values
+     * @param timeToLive how long a fetched value is cached
+     * @param unit the unit of the time to live
+     */
+    public TopicValueCache(
+        Topics topics,
+        Class<V> valueClass,
+        int maximumSize,
+        long timeToLive,
+        TimeUnit unit) {
+
+        this.topics = topics;
+        this.valueClass = valueClass;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, Entry<V>> eldest) {
+
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the value of a topic, fetching it if it is not cached.
+     *
+     * @param path the topic path
+     * @return a CompletableFuture that completes with the value, or null if
+     *         there is no topic at the path
+     */
+    public CompletableFuture<V> get(String path) {
+        final long now = System.nanoTime();
+        final CompletableFuture<V> load;
+
+        // The cache is checked and the fetch registered under the same lock
+        // as a completed fetch is cached, so a read never repeats a fetch
+        // that completed while it was checking the cache
+        synchronized (entries) {
+            final V liveValue = liveValues.get(path);
+            if (liveValue != null) {
+                hits.increment();
+                return CompletableFuture.completedFuture(liveValue);
+            }
+
+            final Entry<V> entry = entries.get(path);
+            if (entry != null) {
+                if (now - entry.fetchedNanos < timeToLiveNanos) {
+                    hits.increment();
+                    return CompletableFuture.completedFuture(entry.value);
+                }
+                entries.remove(path);
+                evictions.increment();
+            }
+
+            final CompletableFuture<V> existingLoad = loading.get(path);
+            if (existingLoad != null) {
+                return existingLoad;
+            }
+            load = new CompletableFuture<>();
+            loading.put(path, load);
+        }
+
+        misses.increment();
+
+        fetch(path).whenComplete((value, ex) -> {
+            synchronized (entries) {
+                loading.remove(path);
+                // Do not shadow a newer value from a subscription
+                if (value != null && !liveValues.containsKey(path)) {
+                    entries.put(path, new Entry<>(value, System.nanoTime()));
+                }
+            }
+
+            if (ex != null) {
+                load.completeExceptionally(ex);
+            }
+            else {
+                load.complete(value);
+            }
+        });
+        return load;
+    }
+
+    /**
+     * Subscribe to topics and keep their cached values up to date.
+     *
+     * @param selector the topic selector
+     * @return a CompletableFuture that completes when the subscription has
+     *         been accepted by the server
+     */
+    public CompletableFuture<?> subscribe(String selector) {
+        topics.addStream(selector, valueClass, new CacheStream());
+        return topics.subscribe(selector);
+    }
+
+    /**
+     * @return the number of reads served from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of reads that started a fetch
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of values evicted because the cache was full or
+     *         their time to live expired
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private CompletableFuture<V> fetch(String path) {
+        return topics.fetchRequest()
+            .withValues(valueClass)
+            .fetch(path)
+            .thenApply(result -> result.results().stream()
+                .findFirst()
+                .map(TopicResult::value)
+                .orElse(null));
+    }
+
+    /**
+     * A fetched value.
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long fetchedNanos;
+
+        private Entry(V value, long fetchedNanos) {
+            this.value = value;
+            this.fetchedNanos = fetchedNanos;
+        }
+    }
+
+    /**
+     * Updates the cache from a subscription.
+     */
+    private final class CacheStream extends Topics.ValueStream.Default<V> {
+        @Override
+        public void onValue(
+            String topicPath,
+            TopicSpecification specification,
+            V oldValue,
+            V newValue) {
+
+            synchronized (entries) {
+                liveValues.put(topicPath, newValue);
+                entries.remove(topicPath);
+            }
+        }
+
+        @Override
+        public void onUnsubscription(
+            String topicPath,
+            TopicSpecification specification,
+            UnsubscribeReason reason) {
+
+            LOG.debug("Unsubscribed from {}: {}", topicPath, reason);
+            synchronized (entries) {
+                liveValues.remove(topicPath);
+            }
+        }
+    }
+}
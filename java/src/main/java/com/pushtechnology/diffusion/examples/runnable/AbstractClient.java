@@ -18,6 +18,8 @@ package com.pushtechnology.diffusion.examples.runnable;
 import static com.pushtechnology.diffusion.client.session.Session.State.CONNECTING;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +31,10 @@ import com.pushtechnology.diffusion.client.session.Session;
 /**
  * Abstract client. Supporting a simplified state model and starting and
  * stopping the client.
+ * <p>
+ * State is guarded by a {@link Lock} rather than a monitor so that a virtual
+ * thread waiting for it does not pin its carrier thread. See
+ * {@link ClientScheduler}.
  *
  * @author DiffusionData Limited
  * @since 5.7
@@ -39,6 +45,7 @@ public abstract class AbstractClient {
 
     private final String url;
     private final String principal;
+    private final Lock lock = new ReentrantLock();
 
     private boolean running = false;
     private Session currentSession;
@@ -60,13 +67,17 @@ public abstract class AbstractClient {
      * @throws IllegalStateException If the client is already running
      */
     public final void start(String password) {
-        synchronized (this) {
+        lock.lock();
+        try {
             if (running) {
                 throw new IllegalStateException("Already running");
             }
             running = true;
             waitForStoppedLatch = new CountDownLatch(1);
         }
+        finally {
+            lock.unlock();
+        }
 
         Diffusion.sessions()
             .principal(principal)
@@ -78,7 +89,8 @@ public abstract class AbstractClient {
                     Session.State oldState,
                     Session.State newState) {
 
-                    synchronized (AbstractClient.this) {
+                    lock.lock();
+                    try {
                         if (CONNECTING == oldState && newState.isConnected()) {
                             onStarted(session);
                         }
@@ -93,11 +105,15 @@ public abstract class AbstractClient {
                         }
 
                         if (newState.isClosed()) {
+                            onStopped();
                             waitForStoppedLatch.countDown();
                             waitForStoppedLatch = null;
                             running = false;
                         }
                     }
+                    finally {
+                        lock.unlock();
+                    }
                 }
             })
             .open(url);
@@ -108,12 +124,18 @@ public abstract class AbstractClient {
      * stop.
      * @throws IllegalStateException If the client is not running
      */
-    public final synchronized void stop() {
-        if (!running) {
-            throw new IllegalStateException("Not currently running");
-        }
+    public final void stop() {
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Not currently running");
+            }
 
-        currentSession.close();
+            currentSession.close();
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -123,12 +145,16 @@ public abstract class AbstractClient {
      */
     public final void waitForStopped() throws InterruptedException {
         final CountDownLatch currentLatch;
-        synchronized (this) {
+        lock.lock();
+        try {
             if (waitForStoppedLatch == null) {
                 return;
             }
             currentLatch = waitForStoppedLatch;
         }
+        finally {
+            lock.unlock();
+        }
         currentLatch.await();
     }
 
@@ -156,6 +182,13 @@ public abstract class AbstractClient {
         LOG.debug("Client disconnected");
     }
 
+    /**
+     * Notified when the client stops. The session has closed.
+     */
+    public void onStopped() {
+        LOG.debug("Client stopped");
+    }
+
     /**
      * Notified when an error prevents the start of the client.
      * @param errorReason The error reason
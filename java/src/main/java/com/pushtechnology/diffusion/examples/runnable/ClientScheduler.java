@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Schedules the periodic and delayed work of a runnable client.
+ * <p>
+ * By default each scheduler has its own single platform thread, on which
+ * its tasks run.
+ * <p>
+ * If the {@value #VIRTUAL_THREADS_PROPERTY} system property is
+ * {@code true}, all schedulers share a single timer thread and each run of a
+ * task executes on a new virtual thread. This allows thousands of clients to
+ * be run in one JVM, for example for soak tests. Virtual threads require
+ * Java 21 or later. A periodic task that runs for longer than its period may
+ * overlap with its next run in this mode.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+final class ClientScheduler {
+    /**
+     * The system property that enables virtual threads.
+     */
+    static final String VIRTUAL_THREADS_PROPERTY =
+        "diffusion.examples.virtualThreads";
+
+    private final ScheduledExecutorService timer;
+    private final Executor worker;
+    private final boolean ownsTimer;
+
+    private ClientScheduler(
+        ScheduledExecutorService timer,
+        Executor worker,
+        boolean ownsTimer) {
+
+        this.timer = timer;
+        this.worker = worker;
+        this.ownsTimer = ownsTimer;
+    }
+
+    /**
+     * Create a scheduler in the configured execution mode.
+     * @return The scheduler
+     * @throws IllegalStateException If virtual threads are enabled but not
+     *  supported by the JVM
+     */
+    static ClientScheduler create() {
+        if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+            if (VirtualThreads.EXECUTOR == null) {
+                throw new IllegalStateException(
+                    "Virtual threads require Java 21 or later");
+            }
+            return new ClientScheduler(
+                VirtualThreads.TIMER,
+                VirtualThreads.EXECUTOR,
+                false);
+        }
+        return new ClientScheduler(
+            Executors.newSingleThreadScheduledExecutor(),
+            Runnable::run,
+            true);
+    }
+
+    /**
+     * @return The source of {@link RandomData} IDs that suits the threads
+     *  that run the tasks of this scheduler. Blocks of IDs are leased to
+     *  platform threads, which are reused. Virtual threads are not reused,
+     *  so they take IDs one at a time.
+     */
+    IntSupplier randomDataIds() {
+        return ownsTimer ? RandomData.BLOCK_IDS : RandomData.SHARED_IDS;
+    }
+
+    /**
+     * Stop the thread of this scheduler, cancelling its tasks. The shared
+     * timer used with virtual threads is not stopped, so tasks scheduled on
+     * it should be cancelled by the caller.
+     */
+    void shutdown() {
+        if (ownsTimer) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Run a task once after a delay.
+     * @param task The task
+     * @param delay The delay
+     * @param unit The unit of the delay
+     * @return A future that can be used to cancel the task
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(() -> worker.execute(task), delay, unit);
+    }
+
+    /**
+     * Run a task periodically.
+     * @param task The task
+     * @param initialDelay The delay before the first run
+     * @param period The period between the start of each run
+     * @param unit The unit of the delay and period
+     * @return A future that can be used to cancel the task
+     */
+    ScheduledFuture<?> scheduleAtFixedRate(
+        Runnable task,
+        long initialDelay,
+        long period,
+        TimeUnit unit) {
+
+        return timer.scheduleAtFixedRate(
+            () -> worker.execute(task),
+            initialDelay,
+            period,
+            unit);
+    }
+
+    /**
+     * The shared timer and virtual thread executor. Initialized on first use
+     * so that the timer thread is only started if virtual threads are
+     * enabled.
+     */
+    private static final class VirtualThreads {
+        private static final ScheduledExecutorService TIMER;
+        private static final ExecutorService EXECUTOR;
+
+        static {
+            final ScheduledThreadPoolExecutor timer =
+                new ScheduledThreadPoolExecutor(1, runnable -> {
+                    final Thread thread =
+                        new Thread(runnable, "client-scheduler-timer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            // Cancelled tasks of stopped clients should not accumulate
+            timer.setRemoveOnCancelPolicy(true);
+            TIMER = timer;
+
+            EXECUTOR = newVirtualThreadPerTaskExecutor();
+        }
+
+        /**
+         * @return A virtual thread per task executor, or null if the JVM does
+         *  not support virtual threads
+         */
+        private static ExecutorService newVirtualThreadPerTaskExecutor() {
+            try {
+                return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(
+                        Executors.class,
+                        "newVirtualThreadPerTaskExecutor",
+                        methodType(ExecutorService.class))
+                    .invoke();
+            }
+            catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
+            // CHECKSTYLE.OFF: IllegalCatch
+            catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+            // CHECKSTYLE.ON: IllegalCatch
+        }
+    }
+}
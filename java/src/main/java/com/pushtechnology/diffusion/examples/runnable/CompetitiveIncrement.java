@@ -16,19 +16,15 @@
 package com.pushtechnology.diffusion.examples.runnable;
 
 import static com.pushtechnology.diffusion.client.Diffusion.newTopicSpecification;
-import static com.pushtechnology.diffusion.client.features.UpdateConstraint.Operator.IS;
 import static com.pushtechnology.diffusion.client.topics.details.TopicType.INT64;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.pushtechnology.diffusion.client.Diffusion;
-import com.pushtechnology.diffusion.client.features.ClusterRoutingException;
 import com.pushtechnology.diffusion.client.features.IncompatibleTopicException;
 import com.pushtechnology.diffusion.client.features.IncompatibleTopicStateException;
 import com.pushtechnology.diffusion.client.features.NoSuchTopicException;
@@ -52,9 +48,11 @@ import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
  * generating an incorrect sequence of updates or knowing about other sessions.
  * <p>
  * The client subscribes to the topic to obtain the latest known value. Every
- * 5 seconds it attempts to increment the topic using the known value as a
+ * 5 seconds it requests an increment of the topic using the known value as a
  * constraint. If another session has changed the topic value, the update will
- * fail and the client will retry with the latest known value.
+ * fail and the client will retry with the latest known value after a random
+ * backoff. Increments requested while an update is in flight are combined
+ * into a single update. See {@link ContendedCounter}.
  *
  * @author DiffusionData Limited
  * @since 6.2
@@ -65,10 +63,10 @@ public final class CompetitiveIncrement extends AbstractClient {
     private static final UpdateConstraint.Factory CONSTRAINTS =
         Diffusion.updateConstraints();
 
-    private final ScheduledExecutorService executor = Executors
-        .newSingleThreadScheduledExecutor();
+    private final ClientScheduler scheduler = ClientScheduler.create();
 
     private volatile Future<?> updateTask;
+    private volatile Future<?> reportTask;
     private volatile Long value;
 
     /**
@@ -166,50 +164,40 @@ public final class CompetitiveIncrement extends AbstractClient {
     }
 
     /**
-     * Schedule an increment in 5 seconds.
+     * Request an increment every 5 seconds and report the contention metrics
+     * every minute.
      */
     private void scheduleIncrement(Topics topics) {
-        updateTask = executor.schedule(
-            () -> performIncrement(topics),
+        final ContendedCounter counter = new ContendedCounter(
+            topics,
+            "long/increment",
+            () -> value,
+            scheduler,
+            this::handleIncrementFailure);
+
+        updateTask = scheduler.scheduleAtFixedRate(
+            () -> counter.increment(1L),
+            5L,
             5L,
             TimeUnit.SECONDS);
-    }
 
-    /**
-     * Perform an increment of the latest known value.
-     */
-    private void performIncrement(Topics topics) {
-        final Long currentValue = value;
-
-        topics
-            .set(
-                "long/increment",
-                Long.class,
-                currentValue + 1,
-                CONSTRAINTS.value(IS, currentValue))
-            .whenComplete((result, ex) -> {
-                if (ex != null) {
-                    // Handle any failure
-                    handleIncrementFailure(topics, ex);
-                }
-                else {
-                    // On success schedule the next update
-                    LOG.info("Topic incremented {} -> {}", currentValue, currentValue + 1);
-                    scheduleIncrement(topics);
-                }
-            });
+        reportTask = scheduler.scheduleAtFixedRate(
+            () -> LOG.info(
+                "CAS success rate {}, retries per increment {}, " +
+                "waits for the topic value {}",
+                counter.getSuccessRate(),
+                counter.getRetriesPerIncrement(),
+                counter.getValueWaits()),
+            1L,
+            1L,
+            TimeUnit.MINUTES);
     }
 
-    private void handleIncrementFailure(Topics topics, Throwable ex) {
+    private void handleIncrementFailure(Throwable ex) {
+        // Transient cluster failures and unsatisfied constraints are retried
+        // by the counter
         final Throwable cause = ex.getCause();
-        if (cause instanceof ClusterRoutingException || cause instanceof UnsatisfiedConstraintException) {
-            // A transient cluster failure occurred during the increment
-            // or the constraint was not satisfied, another session must
-            // have updated the topic.
-            // Retry incrementing the topic until successful.
-            performIncrement(topics);
-        }
-        else if (cause instanceof NoSuchTopicException) {
+        if (cause instanceof NoSuchTopicException) {
             // The topic has been removed since it was created. This could be
             // recoverable, but it implies that something else has taken
             // responsibility for the path. Attempting to recover could cause
@@ -250,6 +238,10 @@ public final class CompetitiveIncrement extends AbstractClient {
         if (task != null) {
             task.cancel(false);
         }
+        final Future<?> report = this.reportTask;
+        if (report != null) {
+            report.cancel(false);
+        }
     }
 
     /**
@@ -15,6 +15,12 @@
 
 package com.pushtechnology.diffusion.examples.runnable;
 
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Arrays;
+import java.util.concurrent.Future;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +31,14 @@ import com.pushtechnology.diffusion.datatype.binary.Binary;
 
 /**
  * A client that consumes Binary topics.
+ * <p>
+ * In latency mode, instead of logging each value the client records the
+ * time between the timestamp of each {@link RandomData} value and its
+ * receipt, and logs latency percentiles for each topic every 10 seconds.
+ * The latency is only meaningful if the clocks of the producing and
+ * consuming hosts are synchronized. Latency mode is enabled by running the
+ * example with the {@value #LATENCY_ARGUMENT} argument. The reporting
+ * thread is started when the client connects and stopped when it stops.
  *
  * @author DiffusionData Limited
  * @since 5.7
@@ -32,6 +46,19 @@ import com.pushtechnology.diffusion.datatype.binary.Binary;
 public final class ConsumingBinary extends AbstractClient {
     private static final Logger LOG = LoggerFactory
         .getLogger(ConsumingBinary.class);
+    private static final long REPORT_PERIOD_SECONDS = 10L;
+
+    /**
+     * The command line argument that enables latency mode.
+     */
+    public static final String LATENCY_ARGUMENT = "--latency";
+
+    private final LatencyHistograms latencies;
+
+    // Only used by the session listener callbacks, which are called one at
+    // a time
+    private ClientScheduler scheduler;
+    private Future<?> reportTask;
 
     /**
      * Constructor.
@@ -39,7 +66,23 @@ public final class ConsumingBinary extends AbstractClient {
      * @param principal The principal to connect as
      */
     public ConsumingBinary(String url, String principal) {
+        this(url, principal, false);
+    }
+
+    /**
+     * Constructor.
+     * @param url The URL to connect to
+     * @param principal The principal to connect as
+     * @param measureLatency If the client should measure end-to-end latency
+     *  instead of logging values
+     */
+    public ConsumingBinary(
+        String url,
+        String principal,
+        boolean measureLatency) {
+
         super(url, principal);
+        latencies = measureLatency ? new LatencyHistograms() : null;
     }
 
     @Override
@@ -51,6 +94,10 @@ public final class ConsumingBinary extends AbstractClient {
             ">binary/random",
             Binary.class,
             new Topics.ValueStream.Default<Binary>() {
+                // Values are delivered to the stream one at a time so a
+                // single view can be reused for every value
+                private final RandomDataView view = new RandomDataView();
+
                 @Override
                 public void onValue(
                     String topicPath,
@@ -58,7 +105,20 @@ public final class ConsumingBinary extends AbstractClient {
                     Binary oldValue,
                     Binary newValue) {
 
-                    LOG.info("New data {}", RandomData.fromBinary(newValue));
+                    view.read(newValue);
+
+                    if (latencies != null) {
+                        // The first value received is the current value of
+                        // the topic and may have been published long ago
+                        if (oldValue != null) {
+                            latencies.record(
+                                topicPath,
+                                currentTimeMillis() - view.getTimestamp());
+                        }
+                    }
+                    else {
+                        LOG.info("New data {}", view);
+                    }
                 }
             });
 
@@ -71,14 +131,49 @@ public final class ConsumingBinary extends AbstractClient {
             });
     }
 
+    @Override
+    public void onConnected(Session session) {
+        if (latencies != null) {
+            if (scheduler == null) {
+                scheduler = ClientScheduler.create();
+            }
+            reportTask = scheduler.scheduleAtFixedRate(
+                latencies::report,
+                REPORT_PERIOD_SECONDS,
+                REPORT_PERIOD_SECONDS,
+                SECONDS);
+        }
+    }
+
+    @Override
+    public void onDisconnected() {
+        // Stop reporting when disconnected
+        if (reportTask != null) {
+            reportTask.cancel(false);
+            reportTask = null;
+        }
+    }
+
+    @Override
+    public void onStopped() {
+        // The scheduler thread would otherwise keep the JVM running
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
     /**
      * Entry point for the example.
-     * @param args The command line arguments
+     * @param args The command line arguments, {@value #LATENCY_ARGUMENT} to
+     *  measure latency
      * @throws InterruptedException If the main thread was interrupted
      */
     public static void main(String[] args) throws InterruptedException {
-        final ConsumingBinary client =
-            new ConsumingBinary("ws://diffusion.example.com:80", "auth");
+        final ConsumingBinary client = new ConsumingBinary(
+            "ws://diffusion.example.com:80",
+            "auth",
+            Arrays.asList(args).contains(LATENCY_ARGUMENT));
         client.start("auth_secret");
         client.waitForStopped();
     }
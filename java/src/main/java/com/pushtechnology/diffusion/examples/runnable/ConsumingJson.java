@@ -16,16 +16,10 @@
 package com.pushtechnology.diffusion.examples.runnable;
 
 import java.io.IOException;
-import java.math.BigInteger;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
-import com.fasterxml.jackson.dataformat.cbor.CBORParser;
 import com.pushtechnology.diffusion.client.features.Topics;
 import com.pushtechnology.diffusion.client.session.Session;
 import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
@@ -38,13 +32,8 @@ import com.pushtechnology.diffusion.datatype.json.JSON;
  * @since 5.7
  */
 public final class ConsumingJson extends AbstractClient {
-    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
-    private static final ObjectMapper OBJECT_MAPPER =
-        new ObjectMapper(CBOR_FACTORY);
     private static final Logger LOG =
         LoggerFactory.getLogger(ConsumingJson.class);
-    private static final TypeReference<Map<String, BigInteger>> INT_MAP_TYPE =
-        new TypeReference<Map<String, BigInteger>>() { };
 
     /**
      * Constructor.
@@ -72,15 +61,10 @@ public final class ConsumingJson extends AbstractClient {
                     JSON newValue) {
 
                     try {
-                        // Converts a Json map into a Java Map.
-                        final CBORParser parser =
-                            CBOR_FACTORY.createParser(newValue.asInputStream());
-                        final Map<String, BigInteger> map = OBJECT_MAPPER
-                            .readValue(parser, INT_MAP_TYPE);
-                        parser.close();
+                        final RandomData data = RandomData.fromJSON(newValue);
 
-                        // Log the timestamp from the map
-                        LOG.info("New timestamp {}", map.get("timestamp"));
+                        // Log the timestamp from the value
+                        LOG.info("New timestamp {}", data.getTimestamp());
                     }
                     catch (IOException e) {
                         LOG.warn("Failed to transform value '{}'", newValue, e);
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import static com.pushtechnology.diffusion.client.features.UpdateConstraint.Operator.IS;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.pushtechnology.diffusion.client.Diffusion;
+import com.pushtechnology.diffusion.client.features.ClusterRoutingException;
+import com.pushtechnology.diffusion.client.features.Topics;
+import com.pushtechnology.diffusion.client.features.UnsatisfiedConstraintException;
+import com.pushtechnology.diffusion.client.features.UpdateConstraint;
+
+/**
+ * Increments an INT64 topic shared with other sessions, using the last known
+ * value of the topic as a compare-and-set constraint.
+ * <p>
+ * Only one compare-and-set is in flight at a time. Increments requested while
+ * it is in flight, or while waiting to retry it, are added together locally
+ * and applied by the next compare-and-set as a single update. When the
+ * constraint is not satisfied because another session updated the topic,
+ * the update is retried after a random delay of up to an exponentially
+ * increasing limit, giving the latest value time to arrive and spreading
+ * competing sessions apart. Increments that arrived while a compare-and-set
+ * was in flight are applied next, constrained on the value it wrote.
+ * <p>
+ * Failures that cannot be retried are passed to the failure handler and the
+ * increments they carried are discarded.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see CompetitiveIncrement
+ */
+final class ContendedCounter {
+    private static final UpdateConstraint.Factory CONSTRAINTS =
+        Diffusion.updateConstraints();
+    private static final long INITIAL_BACKOFF_MILLIS = 1L;
+    private static final long MAX_BACKOFF_MILLIS = 1000L;
+
+    private final Topics topics;
+    private final String path;
+    private final Supplier<Long> latestValue;
+    private final ClientScheduler scheduler;
+    private final Consumer<Throwable> failureHandler;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder valueWaits = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param topics The topics feature
+     * @param path The path of the topic
+     * @param latestValue Supplies the latest known value of the topic
+     * @param scheduler The scheduler used to delay retries
+     * @param failureHandler Notified of failures that cannot be retried
+     */
+    ContendedCounter(
+        Topics topics,
+        String path,
+        Supplier<Long> latestValue,
+        ClientScheduler scheduler,
+        Consumer<Throwable> failureHandler) {
+
+        this.topics = topics;
+        this.path = path;
+        this.latestValue = latestValue;
+        this.scheduler = scheduler;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Request an increment. Returns without waiting for it to be applied.
+     * @param delta The amount to increment by
+     */
+    void increment(long delta) {
+        increments.increment();
+        pending.addAndGet(delta);
+        trySubmit(null);
+    }
+
+    /**
+     * @return The proportion of compare-and-set attempts that succeeded
+     */
+    double getSuccessRate() {
+        final long attempted = attempts.sum();
+        return attempted == 0 ? 1.0 : (double) successes.sum() / attempted;
+    }
+
+    /**
+     * @return The average number of retried compare-and-sets for each
+     *  requested increment
+     */
+    double getRetriesPerIncrement() {
+        final long requested = increments.sum();
+        return requested == 0 ?
+            0.0 :
+            (double) (attempts.sum() - successes.sum()) / requested;
+    }
+
+    /**
+     * @return The number of times a compare-and-set was delayed because no
+     *  value of the topic had been received. A count that keeps growing
+     *  shows the counter is stalled.
+     */
+    long getValueWaits() {
+        return valueWaits.sum();
+    }
+
+    /**
+     * Submit the pending increments if no compare-and-set is in flight.
+     * @param expectedValue The value the topic is expected to have, or null
+     *  to use the latest known value
+     */
+    private void trySubmit(Long expectedValue) {
+        while (pending.get() != 0 && inFlight.compareAndSet(false, true)) {
+            final long delta = pending.getAndSet(0L);
+            if (delta == 0) {
+                inFlight.set(false);
+                continue;
+            }
+
+            attempt(delta, 0, expectedValue);
+            return;
+        }
+    }
+
+    private void attempt(long delta, int retries, Long expectedValue) {
+        final Long currentValue =
+            expectedValue != null ? expectedValue : latestValue.get();
+
+        if (currentValue == null) {
+            // The value of the topic has not been received yet
+            valueWaits.increment();
+            scheduleRetry(delta, retries + 1);
+            return;
+        }
+
+        attempts.increment();
+        topics
+            .set(
+                path,
+                Long.class,
+                currentValue + delta,
+                CONSTRAINTS.value(IS, currentValue))
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    successes.increment();
+                    inFlight.set(false);
+                    // Apply increments that arrived while in flight. The
+                    // subscription has probably not delivered the value just
+                    // written yet, so expect that value rather than the
+                    // latest known one.
+                    trySubmit(currentValue + delta);
+                }
+                else if (isRetryable(ex.getCause())) {
+                    scheduleRetry(delta, retries + 1);
+                }
+                else {
+                    inFlight.set(false);
+                    failureHandler.accept(ex);
+                }
+            });
+    }
+
+    private void scheduleRetry(long delta, int retries) {
+        final long limit = Math.min(
+            MAX_BACKOFF_MILLIS,
+            INITIAL_BACKOFF_MILLIS << Math.min(retries, 30));
+        final long delay = ThreadLocalRandom.current().nextLong(limit + 1);
+
+        scheduler.schedule(
+            // Fold in increments that arrived while waiting
+            () -> attempt(delta + pending.getAndSet(0L), retries, null),
+            delay,
+            TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean isRetryable(Throwable cause) {
+        // A transient cluster failure occurred or the constraint was not
+        // satisfied because another session has updated the topic
+        return cause instanceof ClusterRoutingException ||
+            cause instanceof UnsatisfiedConstraintException;
+    }
+}
@@ -19,8 +19,6 @@ import static com.pushtechnology.diffusion.client.Diffusion.newTopicSpecificatio
 import static com.pushtechnology.diffusion.client.Diffusion.updateConstraints;
 
 import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
@@ -34,7 +32,6 @@ import com.pushtechnology.diffusion.client.features.NoSuchTopicException;
 import com.pushtechnology.diffusion.client.features.TopicUpdate;
 import com.pushtechnology.diffusion.client.features.UnsatisfiedConstraintException;
 import com.pushtechnology.diffusion.client.features.UpdateConstraint;
-import com.pushtechnology.diffusion.client.features.UpdateStream;
 import com.pushtechnology.diffusion.client.session.PermissionsException;
 import com.pushtechnology.diffusion.client.session.Session;
 import com.pushtechnology.diffusion.client.session.SessionClosedException;
@@ -57,9 +54,9 @@ public final class CoordinatingSessionExample extends AbstractClient {
     private static final Logger LOG = LoggerFactory.getLogger(CoordinatingSessionExample.class);
     private static final long PERIOD = 5000;
     private static final TimeUnit UNIT = TimeUnit.MILLISECONDS;
+    private static final int MAX_UPDATE_STREAMS = 10000;
 
-    private final ScheduledExecutorService executor = Executors
-        .newSingleThreadScheduledExecutor();
+    private final ClientScheduler scheduler = ClientScheduler.create();
     private final Random random = new Random();
 
     /**
@@ -98,17 +95,18 @@ public final class CoordinatingSessionExample extends AbstractClient {
             session.getSessionId().toString(),
             locked);
 
-        // Create a factory for update streams
+        // Create a pool of update streams. Streams are replaced by the pool
+        // when the cluster is repartitioned.
         final TopicSpecification specification = newTopicSpecification(TopicType.INT64);
-        final Supplier<UpdateStream<Long>> updateStreamFactory =
-            () -> topicUpdate.newUpdateStreamBuilder()
+        final UpdateStreamPool<Long> updateStreams = new UpdateStreamPool<>(
+            streamPath -> topicUpdate.newUpdateStreamBuilder()
                 .specification(specification)
                 .constraint(locked)
-                .build(path, Long.class);
+                .build(streamPath, Long.class),
+            MAX_UPDATE_STREAMS);
 
-        final UpdateStream<Long> updateStream = updateStreamFactory.get();
-        updateStream
-            .validate()
+        updateStreams
+            .validate(path)
             .whenComplete((result, ex) -> {
                 if (ex != null) {
                     LOG.warn("Unable to initialise first value stream. Unable to begin updating path.", ex);
@@ -117,29 +115,29 @@ public final class CoordinatingSessionExample extends AbstractClient {
                 }
                 else {
                     // Begin updating with the stream
-                    final UpdateTask updateTask = new UpdateTask(updateStreamFactory, updateStream, random::nextLong);
+                    final UpdateTask updateTask = new UpdateTask(updateStreams, path, random::nextLong);
                     updateTask.scheduleUpdate();
                 }
             });
     }
 
     private final class UpdateTask {
-        private final Supplier<UpdateStream<Long>> updateStreamFactory;
+        private final UpdateStreamPool<Long> updateStreams;
+        private final String path;
         private final Supplier<Long> valueSupplier;
-        private volatile UpdateStream<Long> updateStream;
 
         private UpdateTask(
-            Supplier<UpdateStream<Long>> updateStreamFactory,
-            UpdateStream<Long> updateStream,
+            UpdateStreamPool<Long> updateStreams,
+            String path,
             Supplier<Long> valueSupplier) {
 
-            this.updateStreamFactory = updateStreamFactory;
-            this.updateStream = updateStream;
+            this.updateStreams = updateStreams;
+            this.path = path;
             this.valueSupplier = valueSupplier;
         }
 
         private void scheduleUpdate() {
-            executor.schedule((Runnable) this::performUpdate, PERIOD, UNIT);
+            scheduler.schedule((Runnable) this::performUpdate, PERIOD, UNIT);
         }
 
         private void performUpdate() {
@@ -149,8 +147,8 @@ public final class CoordinatingSessionExample extends AbstractClient {
 
         private void performUpdate(long value) {
             // Send update
-            updateStream
-                .set(value)
+            updateStreams
+                .set(path, value)
                 .whenComplete((result, ex) -> {
                     if (ex != null) {
                         handleUpdateFailure(value, ex);
@@ -164,8 +162,8 @@ public final class CoordinatingSessionExample extends AbstractClient {
         private void handleUpdateFailure(long value, Throwable ex) {
             final Throwable cause = ex.getCause();
             if (cause instanceof ClusterRoutingException) {
-                // Replace stream and retry the update
-                updateStream = updateStreamFactory.get();
+                // The pool has discarded the stream. Retry the update, which
+                // will replace it.
                 performUpdate(value);
             }
             else if (cause instanceof UnsatisfiedConstraintException) {
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-topic histograms of end-to-end latency.
+ * <p>
+ * Latencies are recorded without locking into an HdrHistogram
+ * {@link Recorder} for each topic. Values are recorded as measured, without
+ * a further correction for coordinated omission. The producer stamps each
+ * value with the time it was scheduled to be sent, and its fixed-rate
+ * schedule sends the updates missed during a stall, so the latency of each
+ * update already includes any time it was held back.
+ * <p>
+ * {@link #report()} logs the p50, p99, p99.9 and maximum latency for each
+ * topic since the previous report. It should be called from a single
+ * thread.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+final class LatencyHistograms {
+    private static final Logger LOG = LoggerFactory
+        .getLogger(LatencyHistograms.class);
+
+    private final ConcurrentMap<String, TopicHistogram> histograms =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Record the latency of an update.
+     * @param topicPath The topic path
+     * @param latencyMillis The latency in milliseconds. Negative values,
+     *  caused by clock differences between hosts, are recorded as zero.
+     */
+    void record(String topicPath, long latencyMillis) {
+        histograms
+            .computeIfAbsent(topicPath, path -> new TopicHistogram())
+            .recorder
+            .recordValue(Math.max(0L, latencyMillis));
+    }
+
+    /**
+     * Log the latency of each topic since the last report.
+     */
+    void report() {
+        for (Map.Entry<String, TopicHistogram> entry : histograms.entrySet()) {
+            final TopicHistogram topicHistogram = entry.getValue();
+            final Histogram interval = topicHistogram.interval();
+
+            if (interval.getTotalCount() == 0) {
+                continue;
+            }
+
+            LOG.info(
+                "{} latency (ms) count={} p50={} p99={} p99.9={} max={}",
+                entry.getKey(),
+                interval.getTotalCount(),
+                interval.getValueAtPercentile(50.0),
+                interval.getValueAtPercentile(99.0),
+                interval.getValueAtPercentile(99.9),
+                interval.getMaxValue());
+        }
+    }
+
+    /**
+     * The recorder of one topic and the histogram it is reported through.
+     */
+    private static final class TopicHistogram {
+        private final Recorder recorder = new Recorder(3);
+        private Histogram intervalHistogram;
+
+        private Histogram interval() {
+            intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+            return intervalHistogram;
+        }
+    }
+}
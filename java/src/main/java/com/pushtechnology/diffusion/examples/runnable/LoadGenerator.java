@@ -0,0 +1,357 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pushtechnology.diffusion.datatype.binary.Binary;
+
+/**
+ * Drives updates to a set of topics at a target aggregate rate and reports
+ * what was achieved.
+ * <p>
+ * Each topic is represented by a function that publishes a value and returns
+ * a future that completes when the server has applied it, for example
+ * {@code UpdateStream::set}. The topics are divided between a pool of update
+ * threads. Every millisecond each thread publishes however many updates are
+ * needed to keep up with its share of the target rate.
+ * <p>
+ * The number of incomplete updates is capped by a semaphore. When the cap is
+ * reached the update threads block until an update completes, so the
+ * achieved rate falls below the target rather than the backlog growing
+ * without bound. Updates that fall more than a tick behind the schedule while
+ * a thread is blocked are skipped, not sent later in a burst.
+ * <p>
+ * A publishing function that throws is counted as a failure and the thread
+ * continues with the next topic. Failures are not logged as they happen,
+ * which would flood the log under backpressure and slow the update threads;
+ * the first failure of each reporting interval is logged with the report.
+ * <p>
+ * At every reporting interval the achieved rate, the number of updates in
+ * flight, the number of failures and the percentiles of update latency are
+ * logged. Latency is measured from calling the publishing function to the
+ * completion of its future.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see ProducingLoad
+ */
+public final class LoadGenerator {
+    private static final Logger LOG = LoggerFactory
+        .getLogger(LoadGenerator.class);
+    private static final long TICK_NANOS = MILLISECONDS.toNanos(1L);
+
+    private final List<Function<Binary, CompletableFuture<?>>> topics;
+    private final double updatesPerSecond;
+    private final int threads;
+    private final int maxInFlight;
+    private final long reportIntervalMillis;
+
+    private final Semaphore inFlight;
+    private final Recorder latencyRecorder = new Recorder(3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicReference<Throwable> firstFailure =
+        new AtomicReference<>();
+
+    private ScheduledExecutorService updateExecutor;
+    private ScheduledExecutorService reportExecutor;
+    private Histogram intervalHistogram;
+    private long lastReportNanos;
+
+    /**
+     * Constructor.
+     * @param topics The publishing function of each topic
+     * @param updatesPerSecond The target aggregate rate across all topics
+     * @param threads The number of update threads
+     * @param maxInFlight The maximum number of incomplete updates
+     * @param reportIntervalMillis The interval between reports
+     * @throws IllegalArgumentException If there are fewer topics than
+     *  threads or any of the numbers are not positive
+     */
+    public LoadGenerator(
+        List<Function<Binary, CompletableFuture<?>>> topics,
+        double updatesPerSecond,
+        int threads,
+        int maxInFlight,
+        long reportIntervalMillis) {
+
+        if (threads <= 0 || topics.size() < threads) {
+            throw new IllegalArgumentException(
+                "Need at least one topic per thread");
+        }
+        if (updatesPerSecond <= 0 ||
+            maxInFlight <= 0 ||
+            reportIntervalMillis <= 0) {
+            throw new IllegalArgumentException(
+                "Rate, in-flight limit and report interval must be positive");
+        }
+
+        this.topics = new ArrayList<>(topics);
+        this.updatesPerSecond = updatesPerSecond;
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+        this.reportIntervalMillis = reportIntervalMillis;
+        inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Start generating load.
+     * @throws IllegalStateException If already started
+     */
+    public synchronized void start() {
+        if (updateExecutor != null) {
+            throw new IllegalStateException("Already started");
+        }
+
+        updateExecutor = Executors.newScheduledThreadPool(threads);
+        reportExecutor = Executors.newSingleThreadScheduledExecutor();
+
+        final long startNanos = System.nanoTime();
+        final double updatesPerNanoPerThread =
+            updatesPerSecond / threads / SECONDS.toNanos(1L);
+
+        for (int i = 0; i < threads; i++) {
+            // Deal the topics out to the threads
+            final List<Function<Binary, CompletableFuture<?>>> slice =
+                new ArrayList<>();
+            for (int j = i; j < topics.size(); j += threads) {
+                slice.add(topics.get(j));
+            }
+
+            updateExecutor.scheduleAtFixedRate(
+                new UpdateTask(slice, startNanos, updatesPerNanoPerThread),
+                0L,
+                TICK_NANOS,
+                NANOSECONDS);
+        }
+
+        lastReportNanos = startNanos;
+        reportExecutor.scheduleAtFixedRate(
+            this::report,
+            reportIntervalMillis,
+            reportIntervalMillis,
+            MILLISECONDS);
+    }
+
+    /**
+     * Stop generating load. Updates already in flight are not cancelled.
+     */
+    public synchronized void stop() {
+        if (updateExecutor == null) {
+            return;
+        }
+
+        updateExecutor.shutdownNow();
+        reportExecutor.shutdownNow();
+        updateExecutor = null;
+        reportExecutor = null;
+    }
+
+    /**
+     * @return The number of updates that have been published but not yet
+     *  completed
+     */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private void publish(Function<Binary, CompletableFuture<?>> topic)
+        throws InterruptedException {
+
+        inFlight.acquire();
+
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<?> future;
+        try {
+            future = topic.apply(RandomData.toBinary(RandomData.next()));
+        }
+        // CHECKSTYLE.OFF: IllegalCatch
+        catch (RuntimeException e) {
+            inFlight.release();
+            onFailure(e);
+            return;
+        }
+        // CHECKSTYLE.ON: IllegalCatch
+
+        future.whenComplete((result, ex) -> {
+            inFlight.release();
+            if (ex != null) {
+                onFailure(ex);
+            }
+            else {
+                completed.increment();
+                latencyRecorder.recordValue(
+                    NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            }
+        });
+    }
+
+    private void onFailure(Throwable ex) {
+        failed.increment();
+        if (firstFailure.get() == null) {
+            firstFailure.compareAndSet(null, ex);
+        }
+    }
+
+    private synchronized void report() {
+        final long now = System.nanoTime();
+        final double elapsedSeconds =
+            (double) (now - lastReportNanos) / SECONDS.toNanos(1L);
+        lastReportNanos = now;
+
+        intervalHistogram =
+            latencyRecorder.getIntervalHistogram(intervalHistogram);
+
+        LOG.info(
+            "Rate {}/s, in flight {}, failed {}, latency (us) " +
+            "p50={} p99={} p99.9={} max={}",
+            Math.round(completed.sumThenReset() / elapsedSeconds),
+            getInFlight(),
+            failed.sumThenReset(),
+            intervalHistogram.getValueAtPercentile(50.0),
+            intervalHistogram.getValueAtPercentile(99.0),
+            intervalHistogram.getValueAtPercentile(99.9),
+            intervalHistogram.getMaxValue());
+
+        final Throwable failure = firstFailure.getAndSet(null);
+        if (failure != null) {
+            LOG.warn("First failure of the interval", failure);
+        }
+    }
+
+    /**
+     * Create publishing functions that stand in for a server. Each update
+     * completes after a fixed latency.
+     * @param topicCount The number of topics
+     * @param latency The latency of each update
+     * @param unit The unit of the latency
+     * @param executor The executor that completes the updates
+     * @return The publishing functions
+     */
+    public static List<Function<Binary, CompletableFuture<?>>> inProcessTopics(
+        int topicCount,
+        long latency,
+        TimeUnit unit,
+        ScheduledExecutorService executor) {
+
+        final List<Function<Binary, CompletableFuture<?>>> result =
+            new ArrayList<>(topicCount);
+
+        for (int i = 0; i < topicCount; i++) {
+            result.add(value -> {
+                final CompletableFuture<Void> future =
+                    new CompletableFuture<>();
+                executor.schedule(() -> future.complete(null), latency, unit);
+                return future;
+            });
+        }
+
+        return result;
+    }
+
+    /**
+     * Publishes to the topics of one update thread.
+     */
+    private final class UpdateTask implements Runnable {
+        private final List<Function<Binary, CompletableFuture<?>>> slice;
+        private final long startNanos;
+        private final double updatesPerNano;
+        private final long maxBurst;
+        private long sent;
+        private int next;
+
+        private UpdateTask(
+            List<Function<Binary, CompletableFuture<?>>> slice,
+            long startNanos,
+            double updatesPerNano) {
+
+            this.slice = slice;
+            this.startNanos = startNanos;
+            this.updatesPerNano = updatesPerNano;
+            maxBurst =
+                Math.max(1L, (long) Math.ceil(updatesPerNano * TICK_NANOS));
+        }
+
+        @Override
+        public void run() {
+            final long scheduled =
+                (long) ((System.nanoTime() - startNanos) * updatesPerNano);
+
+            // Skip updates missed while blocked on the in-flight limit
+            if (scheduled - sent > maxBurst) {
+                sent = scheduled - maxBurst;
+            }
+            final long due = scheduled - sent;
+
+            try {
+                for (long i = 0; i < due; i++) {
+                    // A failure is counted by publish. It must not escape, as
+                    // that would cancel this task.
+                    publish(slice.get(next));
+                    next = (next + 1) % slice.size();
+                    sent++;
+                }
+            }
+            catch (InterruptedException e) {
+                // Stopping
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Entry point that generates load against an in-process stand-in for a
+     * server, with 1ms of latency per update.
+     * @param args The command line arguments
+     * @throws InterruptedException If the main thread was interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final ScheduledExecutorService standIn =
+            Executors.newSingleThreadScheduledExecutor();
+
+        final LoadGenerator generator = new LoadGenerator(
+            inProcessTopics(1000, 1000L, MICROSECONDS, standIn),
+            100_000,
+            4,
+            10_000,
+            5000L);
+
+        generator.start();
+        SECONDS.sleep(60L);
+        generator.stop();
+        standIn.shutdown();
+    }
+}
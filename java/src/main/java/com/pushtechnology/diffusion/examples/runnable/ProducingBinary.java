@@ -17,11 +17,11 @@ package com.pushtechnology.diffusion.examples.runnable;
 import static com.pushtechnology.diffusion.client.Diffusion.newTopicSpecification;
 import static com.pushtechnology.diffusion.client.topics.details.TopicSpecification.REMOVAL;
 import static com.pushtechnology.diffusion.client.topics.details.TopicType.BINARY;
-import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.pushtechnology.diffusion.client.features.TopicUpdate;
 import com.pushtechnology.diffusion.client.features.control.topics.TopicControl;
@@ -31,13 +31,22 @@ import com.pushtechnology.diffusion.datatype.binary.Binary;
 
 /**
  * A client that creates and updates Binary topics.
+ * <p>
+ * Each value is timestamped with the time it was scheduled to be sent rather
+ * than the time it was sent. If the producer falls behind its schedule the
+ * delay is included in the end-to-end latency measured by
+ * {@link ConsumingBinary}.
  *
  * @author DiffusionData Limited
  * @since 5.7
  */
 public final class ProducingBinary extends AbstractClient {
-    private static final ScheduledExecutorService EXECUTOR = Executors
-        .newSingleThreadScheduledExecutor();
+    /**
+     * The interval between updates.
+     */
+    private static final long UPDATE_PERIOD_MILLIS = 1000L;
+
+    private static final ClientScheduler SCHEDULER = ClientScheduler.create();
 
     private volatile Future<?> updateTask;
 
@@ -65,20 +74,30 @@ public final class ProducingBinary extends AbstractClient {
     public void onConnected(Session session) {
         final TopicUpdate topicUpdate = session.feature(TopicUpdate.class);
 
-        updateTask = EXECUTOR.scheduleAtFixedRate(
+        final long startTime = currentTimeMillis();
+
+        updateTask = SCHEDULER.scheduleAtFixedRate(
             new Runnable() {
+                // Runs may be on different threads
+                private final AtomicLong updates = new AtomicLong();
+
                 @Override
                 public void run() {
+                    final long scheduledTime = startTime +
+                        updates.getAndIncrement() * UPDATE_PERIOD_MILLIS;
+
                     // Update the topic with random data
                     topicUpdate.set(
                         "binary/random",
                         Binary.class,
-                        RandomData.toBinary(RandomData.next()));
+                        RandomData.toBinary(RandomData.next(
+                            SCHEDULER.randomDataIds(),
+                            scheduledTime)));
                 }
             },
             0L,
-            1L,
-            SECONDS);
+            UPDATE_PERIOD_MILLIS,
+            MILLISECONDS);
     }
 
     @Override
@@ -20,9 +20,7 @@ import static com.pushtechnology.diffusion.client.topics.details.TopicSpecificat
 import static com.pushtechnology.diffusion.client.topics.details.TopicType.JSON;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +31,7 @@ import com.pushtechnology.diffusion.client.features.control.topics.TopicControl;
 import com.pushtechnology.diffusion.client.session.Session;
 import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
 import com.pushtechnology.diffusion.datatype.json.JSON;
+import com.pushtechnology.diffusion.examples.ConflatingPublisher;
 
 /**
  * A client that creates and updates JSON topics.
@@ -44,8 +43,7 @@ public final class ProducingJson extends AbstractClient {
     private static final Logger LOG = LoggerFactory
         .getLogger(ProducingJson.class);
 
-    private final ScheduledExecutorService executor = Executors
-        .newSingleThreadScheduledExecutor();
+    private final ClientScheduler scheduler = ClientScheduler.create();
     private volatile Future<?> updateTask;
 
     /**
@@ -72,17 +70,24 @@ public final class ProducingJson extends AbstractClient {
     public void onConnected(Session session) {
         final TopicUpdate topicUpdate = session.feature(TopicUpdate.class);
 
-        updateTask = executor.scheduleAtFixedRate(
+        // Conflate values if the server falls behind, so only the latest
+        // value is sent when the previous update completes
+        final ConflatingPublisher<JSON> publisher = ConflatingPublisher.of(
+            topicUpdate,
+            JSON.class,
+            (path, ex) -> LOG.warn("Failed to update {}", path, ex));
+
+        updateTask = scheduler.scheduleAtFixedRate(
             new Runnable() {
                 @Override
                 public void run() {
                     try {
                         // Update the topic with random data
-                        topicUpdate.set(
+                        publisher.publish(
                             "json/random",
-                            JSON.class,
                             // Converts a RandomData object into a Json map
-                            RandomData.toJSON(RandomData.next()));
+                            RandomData.toJSON(RandomData.next(
+                                scheduler.randomDataIds())));
                     }
                     catch (JsonProcessingException e) {
                         LOG.warn("Failed to transform data", e);
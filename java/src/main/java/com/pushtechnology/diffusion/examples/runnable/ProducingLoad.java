@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import static com.pushtechnology.diffusion.client.Diffusion.newTopicSpecification;
+import static com.pushtechnology.diffusion.client.topics.details.TopicSpecification.REMOVAL;
+import static com.pushtechnology.diffusion.client.topics.details.TopicType.BINARY;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.pushtechnology.diffusion.client.features.TopicUpdate;
+import com.pushtechnology.diffusion.client.features.UpdateStream;
+import com.pushtechnology.diffusion.client.session.Session;
+import com.pushtechnology.diffusion.client.topics.details.TopicSpecification;
+import com.pushtechnology.diffusion.datatype.binary.Binary;
+
+/**
+ * A client that generates a configurable load of updates to many Binary
+ * topics, for capacity planning.
+ * <p>
+ * Each topic is updated through its own {@link UpdateStream}, which creates
+ * the topic on first use. The load is driven by a {@link LoadGenerator}
+ * which reports the achieved rate, updates in flight and update latency.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+public final class ProducingLoad extends AbstractClient {
+    private final int topicCount;
+    private final double updatesPerSecond;
+    private final int threads;
+    private final int maxInFlight;
+
+    private volatile LoadGenerator generator;
+
+    /**
+     * Constructor.
+     * @param url The URL to connect to
+     * @param principal The principal to connect as
+     * @param topicCount The number of topics to update
+     * @param updatesPerSecond The target aggregate update rate
+     * @param threads The number of update threads
+     * @param maxInFlight The maximum number of incomplete updates
+     */
+    public ProducingLoad(
+        String url,
+        String principal,
+        int topicCount,
+        double updatesPerSecond,
+        int threads,
+        int maxInFlight) {
+
+        super(url, principal);
+        this.topicCount = topicCount;
+        this.updatesPerSecond = updatesPerSecond;
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void onConnected(Session session) {
+        final TopicUpdate topicUpdate = session.feature(TopicUpdate.class);
+
+        final TopicSpecification specification =
+            newTopicSpecification(BINARY)
+                .withProperty(REMOVAL, "when this session closes");
+
+        final List<Function<Binary, CompletableFuture<?>>> topics =
+            new ArrayList<>(topicCount);
+        for (int i = 0; i < topicCount; i++) {
+            final UpdateStream<Binary> stream = topicUpdate
+                .newUpdateStreamBuilder()
+                .specification(specification)
+                .build("load/" + i, Binary.class);
+            topics.add(stream::set);
+        }
+
+        generator = new LoadGenerator(
+            topics,
+            updatesPerSecond,
+            threads,
+            maxInFlight,
+            5000L);
+        generator.start();
+    }
+
+    @Override
+    public void onDisconnected() {
+        // Stop generating load when disconnected
+        final LoadGenerator currentGenerator = generator;
+        if (currentGenerator != null) {
+            currentGenerator.stop();
+        }
+    }
+
+    /**
+     * Entry point for the example.
+     * @param args The command line arguments
+     * @throws InterruptedException If the main thread was interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final ProducingLoad client = new ProducingLoad(
+            "ws://diffusion.example.com:80",
+            "auth",
+            1000,
+            100_000,
+            4,
+            10_000);
+        client.start("auth_secret");
+        client.waitForStopped();
+    }
+}
@@ -18,16 +18,17 @@ package com.pushtechnology.diffusion.examples.runnable;
 import static java.lang.Integer.MAX_VALUE;
 import static java.lang.System.currentTimeMillis;
 
-import java.nio.ByteBuffer;
-import java.util.Random;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
-import com.pushtechnology.diffusion.client.Diffusion;
 import com.pushtechnology.diffusion.datatype.binary.Binary;
 import com.pushtechnology.diffusion.datatype.json.JSON;
+import com.pushtechnology.diffusion.examples.JSONCodec;
 
 /**
  * Random data for examples.
@@ -36,17 +37,39 @@ import com.pushtechnology.diffusion.datatype.json.JSON;
  * @since 5.7
  */
 public final class RandomData {
+    private static final int ID_BLOCK_SIZE = 1024;
     private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
-    private static final Random RANDOM = new Random();
-    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
-    private static final ObjectMapper OBJECT_MAPPER =
-        new ObjectMapper(CBOR_FACTORY);
+    private static final ThreadLocal<IdBlock> ID_BLOCKS =
+        ThreadLocal.withInitial(IdBlock::new);
+
+    /**
+     * Leases IDs to each thread in blocks. No lock is taken and the shared
+     * counter is only touched once per block, so producer threads do not
+     * contend, but values created by different threads are not ordered by
+     * ID.
+     */
+    static final IntSupplier BLOCK_IDS = () -> ID_BLOCKS.get().nextId();
+
+    /**
+     * Takes IDs from the shared counter one at a time. For threads that are
+     * not reused, such as virtual threads, which would lease a whole block
+     * of IDs to use only one.
+     */
+    static final IntSupplier SHARED_IDS = ID_GENERATOR::getAndIncrement;
+
+    private static final JSONCodec<RandomData> JSON_CODEC =
+        JSONCodec.forType(RandomData.class);
 
     private final int id;
     private final long timestamp;
     private final int randomInt;
 
-    private RandomData(int id, long timestamp, int randomInt) {
+    @JsonCreator
+    RandomData(
+        @JsonProperty("id") int id,
+        @JsonProperty("timestamp") long timestamp,
+        @JsonProperty("randomInt") int randomInt) {
+
         this.id = id;
         this.timestamp = timestamp;
         this.randomInt = randomInt;
@@ -80,14 +103,52 @@ public final class RandomData {
     }
 
     /**
+     * Create the next value, with an ID from {@link #BLOCK_IDS}.
      * @return The next {@link RandomData}
      */
     static RandomData next() {
-        synchronized (RandomData.class) {
-            return new RandomData(
-                ID_GENERATOR.getAndIncrement(),
-                currentTimeMillis(),
-                RANDOM.nextInt(MAX_VALUE));
+        return next(BLOCK_IDS, currentTimeMillis());
+    }
+
+    /**
+     * Create the next value.
+     * @param ids The source of unique IDs, {@link #BLOCK_IDS} or
+     *  {@link #SHARED_IDS}
+     * @return The next {@link RandomData}
+     */
+    static RandomData next(IntSupplier ids) {
+        return next(ids, currentTimeMillis());
+    }
+
+    /**
+     * Create the next value with a given timestamp.
+     * @param ids The source of unique IDs, {@link #BLOCK_IDS} or
+     *  {@link #SHARED_IDS}
+     * @param timestamp The timestamp, in milliseconds since the epoch
+     * @return The next {@link RandomData}
+     */
+    static RandomData next(IntSupplier ids, long timestamp) {
+        final int id = ids.getAsInt();
+
+        return new RandomData(
+            id,
+            timestamp,
+            ThreadLocalRandom.current().nextInt(MAX_VALUE));
+    }
+
+    /**
+     * A block of IDs leased from {@link #ID_GENERATOR} by a single thread.
+     */
+    private static final class IdBlock {
+        private int nextId;
+        private int limit;
+
+        private int nextId() {
+            if (nextId == limit) {
+                nextId = ID_GENERATOR.getAndAdd(ID_BLOCK_SIZE);
+                limit = nextId + ID_BLOCK_SIZE;
+            }
+            return nextId++;
         }
     }
 
@@ -97,11 +158,7 @@ public final class RandomData {
      * @return The {@link Binary} value
      */
     static Binary toBinary(RandomData randomData) {
-        final ByteBuffer buffer = ByteBuffer.allocate(16);
-        buffer.putInt(randomData.getId());
-        buffer.putLong(randomData.getTimestamp());
-        buffer.putInt(randomData.getRandomInt());
-        return Diffusion.dataTypes().binary().readValue(buffer.array());
+        return RandomDataCodec.toBinary(randomData);
     }
 
     /**
@@ -110,11 +167,7 @@ public final class RandomData {
      * @return The {@link RandomData} value
      */
     static RandomData fromBinary(Binary binary) {
-        final ByteBuffer buffer = ByteBuffer.wrap(binary.toByteArray());
-        final int id = buffer.getInt();
-        final long timestamp = buffer.getLong();
-        final int randomInt = buffer.getInt();
-        return new RandomData(id, timestamp, randomInt);
+        return new RandomDataView().read(binary).toRandomData();
     }
 
     /**
@@ -125,9 +178,16 @@ public final class RandomData {
     static JSON toJSON(RandomData randomData)
         throws JsonProcessingException {
 
-        return Diffusion
-            .dataTypes()
-            .json()
-            .readValue(OBJECT_MAPPER.writeValueAsBytes(randomData));
+        return JSON_CODEC.toJSON(randomData);
+    }
+
+    /**
+     * Deserialize a {@link JSON} value as a {@link RandomData} value.
+     * @param json The {@link JSON} value
+     * @return The {@link RandomData} value
+     * @throws IOException If the value could not be parsed
+     */
+    static RandomData fromJSON(JSON json) throws IOException {
+        return JSON_CODEC.fromJSON(json);
     }
 }
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import com.pushtechnology.diffusion.client.Diffusion;
+import com.pushtechnology.diffusion.datatype.binary.Binary;
+import com.pushtechnology.diffusion.datatype.binary.BinaryDataType;
+
+/**
+ * Allocation-light {@link Binary} codec for {@link RandomData}.
+ * <p>
+ * Values are encoded as a big-endian 4 byte ID, 8 byte timestamp and 4 byte
+ * random integer, the same format used by {@link RandomData#toBinary}.
+ * Encoding writes into a caller-supplied buffer. Decoding reads the fields
+ * straight out of the {@link Binary} value into a reusable
+ * {@link RandomDataView}.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ */
+final class RandomDataCodec {
+    /**
+     * The size of an encoded value in bytes.
+     */
+    static final int SIZE = 16;
+
+    private static final BinaryDataType BINARY_DATA_TYPE =
+        Diffusion.dataTypes().binary();
+
+    private RandomDataCodec() {
+    }
+
+    /**
+     * Encode the fields of a value into a buffer.
+     * @param id The ID of the data value
+     * @param timestamp The timestamp the data value was created
+     * @param randomInt The random integer of the data value
+     * @param buffer The buffer to write to
+     * @param offset The offset in the buffer to start writing at
+     * @return The number of bytes written
+     * @throws IndexOutOfBoundsException If there are fewer than {@link #SIZE}
+     *  bytes available after the offset
+     */
+    static int encode(
+        int id,
+        long timestamp,
+        int randomInt,
+        byte[] buffer,
+        int offset) {
+
+        if (offset < 0 || buffer.length - offset < SIZE) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        putInt(buffer, offset, id);
+        putInt(buffer, offset + 4, (int) (timestamp >>> 32));
+        putInt(buffer, offset + 8, (int) timestamp);
+        putInt(buffer, offset + 12, randomInt);
+        return SIZE;
+    }
+
+    /**
+     * Encode a {@link RandomData} value into a buffer.
+     * @param randomData The {@link RandomData} value
+     * @param buffer The buffer to write to
+     * @param offset The offset in the buffer to start writing at
+     * @return The number of bytes written
+     * @throws IndexOutOfBoundsException If there are fewer than {@link #SIZE}
+     *  bytes available after the offset
+     */
+    static int encode(RandomData randomData, byte[] buffer, int offset) {
+        return encode(
+            randomData.getId(),
+            randomData.getTimestamp(),
+            randomData.getRandomInt(),
+            buffer,
+            offset);
+    }
+
+    /**
+     * Serialize a {@link RandomData} value as a {@link Binary} value.
+     * <p>
+     * {@link Binary} values are immutable and may share the array they are
+     * read from, so the only allocation is the array that becomes the value.
+     * @param randomData The {@link RandomData} value
+     * @return The {@link Binary} value
+     */
+    static Binary toBinary(RandomData randomData) {
+        final byte[] bytes = new byte[SIZE];
+        encode(randomData, bytes, 0);
+        return BINARY_DATA_TYPE.readValue(bytes);
+    }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+}
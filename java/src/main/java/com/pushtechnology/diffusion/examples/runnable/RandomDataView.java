@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.pushtechnology.diffusion.datatype.binary.Binary;
+
+/**
+ * A mutable, reusable view of a {@link RandomData} value encoded as
+ * {@link Binary}.
+ * <p>
+ * Reading a value copies its bytes directly into the fields of the view,
+ * without an intermediate array or a new {@link RandomData}. A view is not
+ * thread-safe; it is intended to be owned by a single value stream, which
+ * receives its values one at a time.
+ *
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see RandomDataCodec
+ */
+final class RandomDataView {
+    private final FieldSink sink = new FieldSink();
+
+    private int id;
+    private long timestamp;
+    private int randomInt;
+
+    /**
+     * Read a value into this view, replacing any previous value.
+     * @param binary The {@link Binary} value
+     * @return This view
+     * @throws IllegalArgumentException If the value is not an encoded
+     *  {@link RandomData} value
+     */
+    RandomDataView read(Binary binary) {
+        if (binary.length() != RandomDataCodec.SIZE) {
+            throw new IllegalArgumentException(
+                "Expected " + RandomDataCodec.SIZE + " bytes but got " +
+                binary.length());
+        }
+
+        id = 0;
+        timestamp = 0L;
+        randomInt = 0;
+        sink.position = 0;
+
+        try {
+            binary.copyTo(sink);
+        }
+        catch (IOException e) {
+            // The sink never throws
+            throw new IllegalStateException(e);
+        }
+
+        return this;
+    }
+
+    /**
+     * @return The ID of the data value
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * @return The timestamp the data value was created
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return The random integer of the data value
+     */
+    int getRandomInt() {
+        return randomInt;
+    }
+
+    /**
+     * @return An immutable copy of the current value
+     */
+    RandomData toRandomData() {
+        return new RandomData(id, timestamp, randomInt);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "<id=" + id + ",timestamp=" +
+            timestamp + ",randomInt=" + randomInt + '>';
+    }
+
+    /**
+     * Accumulates big-endian bytes into the fields of the view.
+     */
+    private final class FieldSink extends OutputStream {
+        private int position;
+
+        @Override
+        public void write(int b) {
+            final int i = position++;
+            final int unsigned = b & 0xFF;
+
+            if (i < 4) {
+                id = (id << 8) | unsigned;
+            }
+            else if (i < 12) {
+                timestamp = (timestamp << 8) | unsigned;
+            }
+            else {
+                randomInt = (randomInt << 8) | unsigned;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (C) 2026 DiffusionData Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package com.pushtechnology.diffusion.examples.runnable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.pushtechnology.diffusion.client.features.ClusterRoutingException;
+import com.pushtechnology.diffusion.client.features.UpdateStream;
+
+/**
+ * A bounded cache of {@link UpdateStream}s for updating many topic paths.
+ * <p>
+ * A stream is created and validated the first time a path is used. Values
+ * set before validation completes are queued behind it and sent in the order
+ * they were set; values set after are sent immediately, so any number of
+ * updates can be outstanding for a path without waiting for earlier ones to
+ * complete. When more than the maximum number of paths are in use, the stream
+ * of the least recently used path is discarded.
+ * <p>
+ * If validation or an update fails, for example with a
+ * {@link ClusterRoutingException} or because the topic does not exist yet,
+ * the update stream can no longer be used. The stream is discarded and the
+ * failure is returned. The next update of the path creates a replacement
+ * stream.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <T> the value type
+ * @author DiffusionData Limited
+ * @since 6.10
+ * @see CoordinatingSessionExample
+ */
+final class UpdateStreamPool<T> {
+    private final Function<String, UpdateStream<T>> streamFactory;
+    private final Map<String, PooledStream> streams;
+
+    /**
+     * Constructor.
+     * @param streamFactory Creates an update stream for a path
+     * @param maxStreams The maximum number of streams to cache
+     */
+    UpdateStreamPool(
+        Function<String, UpdateStream<T>> streamFactory,
+        int maxStreams) {
+
+        this.streamFactory = streamFactory;
+        streams = new LinkedHashMap<String, PooledStream>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, PooledStream> eldest) {
+                return size() > maxStreams;
+            }
+        };
+    }
+
+    /**
+     * Validate the stream for a path, creating it if necessary.
+     * @param path The topic path
+     * @return A future that completes when the stream has been validated
+     */
+    CompletableFuture<?> validate(String path) {
+        return streamFor(path).validated;
+    }
+
+    /**
+     * Set the value of a path. Returns without waiting for earlier updates
+     * of the path to complete.
+     * @param path The topic path
+     * @param value The value
+     * @return A future that completes when the update has been applied
+     */
+    CompletableFuture<?> set(String path, T value) {
+        final PooledStream pooled = streamFor(path);
+
+        return pooled.set(value).whenComplete((x, ex) -> {
+            if (ex != null) {
+                discard(path, pooled);
+            }
+        });
+    }
+
+    /**
+     * @return The number of cached streams
+     */
+    int size() {
+        synchronized (streams) {
+            return streams.size();
+        }
+    }
+
+    private PooledStream streamFor(String path) {
+        synchronized (streams) {
+            final PooledStream existing = streams.get(path);
+            if (existing != null) {
+                return existing;
+            }
+
+            final PooledStream pooled =
+                new PooledStream(streamFactory.apply(path));
+            streams.put(path, pooled);
+
+            // Added once the stream is in the map, so a validation that has
+            // already failed discards it
+            pooled.validated.whenComplete((x, ex) -> {
+                if (ex != null) {
+                    discard(path, pooled);
+                }
+            });
+
+            return pooled;
+        }
+    }
+
+    private void discard(String path, PooledStream pooled) {
+        synchronized (streams) {
+            // Only discard if a replacement has not already been created
+            streams.remove(path, pooled);
+        }
+    }
+
+    /**
+     * A stream, its validation and the values queued behind it.
+     */
+    private final class PooledStream {
+        private final UpdateStream<T> stream;
+        private final CompletableFuture<?> validated;
+
+        /**
+         * Completes when the last queued value has been passed to the stream.
+         * Each queued value is chained on the previous one, because the
+         * dependents of a single future are not run in the order they were
+         * added.
+         */
+        // Guarded by this
+        private CompletableFuture<?> queueTail;
+
+        private PooledStream(UpdateStream<T> stream) {
+            this.stream = stream;
+            validated = stream.validate();
+            queueTail = validated;
+        }
+
+        private synchronized CompletableFuture<?> set(T value) {
+            if (queueTail.isDone() && !queueTail.isCompletedExceptionally()) {
+                // Validated, and every queued value has been sent
+                return stream.set(value);
+            }
+
+            final CompletableFuture<CompletableFuture<?>> sent =
+                queueTail.thenApply(x -> stream.set(value));
+            queueTail = sent;
+            return sent.thenCompose(update -> update);
+        }
+    }
+}
@@ -16,6 +16,10 @@
 /**
  * This provides a number of runnable examples of using the Diffusion API. The examples provide main methods
  * as entry points. The Diffusion Client Library must be present on the classpath for them to run.
+ * <p>
+ * Setting the system property {@code diffusion.examples.virtualThreads} to {@code true} runs the scheduled work of
+ * the clients on virtual threads with a single shared timer, so that many clients can run in one JVM. This requires
+ * Java 21 or later.
  *
  * @author DiffusionData Limited
  * @since 5.7